@@ -0,0 +1,110 @@
+package com.homework.project3.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.homework.project3.logging.SamplingFilter;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Request-thread cost of one per-request INFO line under the old and the prod logging setup:
+ * "sync" is the previous synchronous pattern file appender flushing every event, "async" the
+ * prod JSON file behind an AsyncAppender, and "async-sampled" the same with 1-in-100 sampling.
+ * Run with ./gradlew jmh -Pjmh.includes=LoggingBenchmark; compare ops/s across modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class LoggingBenchmark {
+
+    @Param({"sync", "async", "async-sampled"})
+    public String mode;
+
+    private LoggerContext context;
+    private Logger logger;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        directory = Files.createTempDirectory("logging-benchmark");
+        context = new LoggerContext();
+        context.start();
+
+        Appender<ILoggingEvent> appender;
+        if (mode.equals("sync")) {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+            appender = fileAppender(encoder, true);
+        } else {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            if (mode.equals("async-sampled")) {
+                SamplingFilter sampling = new SamplingFilter();
+                sampling.setLoggers("com.homework.project3");
+                sampling.setRate(100);
+                sampling.start();
+                async.addFilter(sampling);
+            }
+            async.addAppender(fileAppender(new LogstashEncoder(), false));
+            async.start();
+            appender = async;
+        }
+        logger = context.getLogger("com.homework.project3.controller.CourseController");
+        logger.setAdditive(false);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        logger.addAppender(appender);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void logRequestLine() {
+        logger.info("Successfully retrieved {} courses", 42);
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder, boolean immediateFlush) {
+        encoder.setContext(context);
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(directory.resolve("application.log").toString());
+        file.setEncoder(encoder);
+        file.setImmediateFlush(immediateFlush);
+        file.start();
+        return file;
+    }
+}
@@ -0,0 +1,96 @@
+package com.homework.project3.benchmark;
+
+import com.homework.project3.Project3Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against an in-memory H2 database migrated by Flyway and seeds it
+ * with a realistic volume: one student per ten enrollments and a fixed course catalogue.
+ * Enrollment i pairs student (i % students) with course (i / students), so seeded pairs only
+ * use the first few courses and the rest are free for insert benchmarks.
+ */
+public final class SeededApplication {
+
+    public static final int COURSES = 500;
+    private static final int BATCH_SIZE = 5000;
+
+    private SeededApplication() {
+    }
+
+    public static int studentsFor(int enrollments) {
+        return Math.max(1000, enrollments / 10);
+    }
+
+    public static int usedCoursesFor(int enrollments) {
+        return (enrollments + studentsFor(enrollments) - 1) / studentsFor(enrollments);
+    }
+
+    public static ConfigurableApplicationContext start(String name, int enrollments) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Project3Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.show-sql=false",
+                        "security.jwt.secret=YmVuY2htYXJrLW9ubHktand0LXNpZ25pbmcta2V5LW5vdC1mb3ItcHJvZA==",
+                        "logging.level.root=WARN",
+                        "logging.level.com.homework=WARN",
+                        "logging.level.org.springframework.web=WARN",
+                        "logging.file.name=")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), enrollments);
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbc, int enrollments) {
+        int students = studentsFor(enrollments);
+        jdbc.update("INSERT INTO users (id, username, password, role) VALUES (1, 'admin', 'admin', 'ROLE_ADMIN')");
+
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int c = 1; c <= COURSES; c++) {
+            rows.add(new Object[]{(long) c, "Course " + c, 1 + c % 6, "Description of course " + c, c % 2 == 0 ? "Fall" : "Spring"});
+        }
+        jdbc.batchUpdate("INSERT INTO courses (id, name, credit, description, semester) VALUES (?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (int s = 1; s <= students; s++) {
+            rows.add(new Object[]{(long) s, "Name" + s, "Surname" + s, "student" + s + "@example.com", "Department " + s % 20});
+            if (rows.size() == BATCH_SIZE) {
+                jdbc.batchUpdate("INSERT INTO students (id, name, surname, email, department) VALUES (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO students (id, name, surname, email, department) VALUES (?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+
+        Date classDate = Date.valueOf(LocalDate.of(2024, 9, 16));
+        for (int i = 0; i < enrollments; i++) {
+            rows.add(new Object[]{(long) i + 1, (long) (i % students) + 1, (long) (i / students) + 1, classDate, 1000.0 + i % 500, i % 3 != 0});
+            if (rows.size() == BATCH_SIZE) {
+                jdbc.batchUpdate("INSERT INTO enrollments (id, student_id, course_id, class_date, tuition, attendance) VALUES (?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO enrollments (id, student_id, course_id, class_date, tuition, attendance) VALUES (?, ?, ?, ?, ?, ?)", rows);
+        }
+
+        // Explicit ids bypassed the sequences; move them past the seeded rows (pooled: one block ahead)
+        jdbc.execute("ALTER SEQUENCE users_seq RESTART WITH 51");
+        jdbc.execute("ALTER SEQUENCE courses_seq RESTART WITH " + (COURSES + 50));
+        jdbc.execute("ALTER SEQUENCE students_seq RESTART WITH " + (students + 50));
+        jdbc.execute("ALTER SEQUENCE enrollments_seq RESTART WITH " + (enrollments + 50));
+    }
+}
@@ -0,0 +1,78 @@
+package com.homework.project3.benchmark;
+
+import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.Student;
+import com.homework.project3.service.EnrollmentService;
+import com.homework.project3.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int enrollments;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private EnrollmentService enrollmentService;
+    private UserDetailsService userDetailsService;
+    private int students;
+    private int firstFreeCourse;
+    private long nextPair;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = SeededApplication.start("service" + enrollments, enrollments);
+        studentService = context.getBean(StudentService.class);
+        enrollmentService = context.getBean(EnrollmentService.class);
+        userDetailsService = context.getBean(UserDetailsService.class);
+        students = SeededApplication.studentsFor(enrollments);
+        firstFreeCourse = SeededApplication.usedCoursesFor(enrollments) + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Student> getAllStudents() {
+        return studentService.getAllStudents();
+    }
+
+    @Benchmark
+    public Enrollment createEnrollment() {
+        // Walk (student, course) pairs that the seed never used, so every call inserts
+        long pair = nextPair++;
+        long studentId = pair % students + 1;
+        long courseId = firstFreeCourse + (pair / students) % (SeededApplication.COURSES - firstFreeCourse + 1);
+        Enrollment details = new Enrollment();
+        details.setClassDate(LocalDate.of(2024, 9, 16));
+        details.setTuition(1500.0);
+        details.setAttendance(true);
+        return enrollmentService.createEnrollment(courseId, studentId, details);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("admin");
+    }
+}
@@ -0,0 +1,98 @@
+package com.homework.project3.benchmark;
+
+import com.homework.project3.model.IdentityStudent;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Student inserts per second through JPA, a thousand rows per transaction. "sequence" is the
+ * Student mapping (pooled sequence, JDBC batching); "identity" is IdentityStudent, the same table
+ * shape with IDENTITY ids, where Hibernate has to run each INSERT alone to read the key back.
+ * Run with ./gradlew jmh -Pjmh.includes=StudentInsertBenchmark; compare ops/s across ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StudentInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"sequence", "identity"})
+    public String ids;
+
+    private ConfigurableApplicationContext context;
+    private StudentRepository studentRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = SeededApplication.start("inserts", 0);
+        studentRepository = context.getBean(StudentRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        IdentityStudent.DDL.forEach(jdbcTemplate::execute);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertStudents() {
+        if (ids.equals("identity")) {
+            insertIdentityStudents();
+            return;
+        }
+        List<Student> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            long n = counter++;
+            Student student = new Student();
+            student.setName("Bench" + n);
+            student.setSurname("Student" + n);
+            student.setEmail("bench" + n + "@example.com");
+            student.setDepartment("Department " + n % 20);
+            batch.add(student);
+        }
+        transactionTemplate.executeWithoutResult(status -> studentRepository.saveAll(batch));
+    }
+
+    private void insertIdentityStudents() {
+        List<IdentityStudent> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            long n = counter++;
+            IdentityStudent student = new IdentityStudent();
+            student.setName("Bench" + n);
+            student.setSurname("Student" + n);
+            student.setEmail("bench" + n + "@example.com");
+            student.setDepartment("Department " + n % 20);
+            batch.add(student);
+        }
+        // What saveAll does for new entities: persist one by one, then flush at commit
+        transactionTemplate.executeWithoutResult(status -> batch.forEach(entityManager::persist));
+    }
+}
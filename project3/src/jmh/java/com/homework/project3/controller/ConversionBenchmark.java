@@ -0,0 +1,61 @@
+package com.homework.project3.controller;
+
+import com.homework.project3.model.Course;
+import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.EnrollmentDTO;
+import com.homework.project3.model.Student;
+import com.homework.project3.model.StudentDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the controller package to reach the package-private DTO converters
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversionBenchmark {
+
+    private Student student;
+    private List<Long> enrollmentIds;
+    private Enrollment enrollment;
+
+    @Setup
+    public void setUp() {
+        student = new Student();
+        student.setId(42L);
+        student.setName("Ayşe");
+        student.setSurname("Yılmaz");
+        student.setEmail("ayse.yilmaz@example.com");
+        student.setDepartment("Computer Engineering");
+        student.setProfileImage("profile.png");
+        enrollmentIds = List.of(1L, 2L, 3L, 4L, 5L, 6L);
+
+        Course course = new Course();
+        course.setId(7L);
+        enrollment = new Enrollment();
+        enrollment.setId(99L);
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setClassDate(LocalDate.of(2024, 9, 16));
+        enrollment.setTuition(1500.0);
+        enrollment.setAttendance(true);
+    }
+
+    @Benchmark
+    public StudentDTO convertToStudentDTO() {
+        return StudentController.convertToStudentDTO(student, enrollmentIds);
+    }
+
+    @Benchmark
+    public EnrollmentDTO convertToEnrollmentDTO() {
+        return EnrollmentController.convertToEnrollmentDTO(enrollment);
+    }
+}
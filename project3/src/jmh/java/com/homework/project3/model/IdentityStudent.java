@@ -0,0 +1,64 @@
+package com.homework.project3.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Student mapped the way it was before the pooled sequences: IDENTITY ids, which make
+ * Hibernate run every INSERT on its own to read the generated key, so JDBC batching is off.
+ * Lives in the jmh source set (under the @EntityScan package) and is only used by
+ * StudentInsertBenchmark, which creates the table itself.
+ */
+@Entity
+@Table(name = "bench_identity_students")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdentityStudent {
+
+    // Same columns and indexes as students, so the id strategy is the only difference
+    public static final List<String> DDL = List.of(
+            "CREATE TABLE IF NOT EXISTS bench_identity_students (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "version BIGINT NOT NULL, " +
+                    "name VARCHAR(255) NOT NULL, " +
+                    "surname VARCHAR(255) NOT NULL, " +
+                    "email VARCHAR(255) NOT NULL UNIQUE, " +
+                    "department VARCHAR(255) NOT NULL, " +
+                    "profile_image VARCHAR(255))",
+            "CREATE INDEX IF NOT EXISTS idx_bench_identity_department ON bench_identity_students (department)",
+            "CREATE INDEX IF NOT EXISTS idx_bench_identity_profile_image ON bench_identity_students (profile_image)");
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private String surname;
+
+    @Column(nullable = false, unique = true)
+    private String email;
+
+    @Column(nullable = false)
+    private String department;
+
+    @Column(name = "profile_image")
+    private String profileImage;
+}
@@ -0,0 +1,70 @@
+package com.homework.project3.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+    public static final String IMAGE_EXECUTOR = "imageTaskExecutor";
+    public static final String APPLICATION_EXECUTOR = "applicationTaskExecutor";
+
+    // Declared here because Boot backs off its own applicationTaskExecutor as soon as any Executor
+    // bean exists (imageTaskExecutor does). Runs plain @Async methods ("taskExecutor" alias) and the
+    // MVC async exports: virtual threads with spring.threads.virtual.enabled, otherwise the bounded
+    // spring.task.execution.pool.* platform pool
+    @Bean(name = {APPLICATION_EXECUTOR, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(Environment environment,
+                                                     SimpleAsyncTaskExecutorBuilder simpleBuilder,
+                                                     ThreadPoolTaskExecutorBuilder poolBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return simpleBuilder.virtualThreads(true).threadNamePrefix("task-").build();
+        }
+        return poolBuilder.threadNamePrefix("task-").build();
+    }
+
+    // StreamingResponseBody exports otherwise fall back to MVC's unbounded SimpleAsyncTaskExecutor
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(@Qualifier(APPLICATION_EXECUTOR) AsyncTaskExecutor executor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(executor);
+            }
+        };
+    }
+
+    // Bounded so a burst of uploads cannot queue unlimited decode work; overflow is dropped
+    // and the list view falls back to the original image. Stays on platform threads even with
+    // spring.threads.virtual.enabled: decoding is CPU-bound, so virtual threads would not help
+    @Bean(name = IMAGE_EXECUTOR)
+    public TaskExecutor imageTaskExecutor(@Value("${images.thumbnail.workers:2}") int workers,
+                                          @Value("${images.thumbnail.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setRejectedExecutionHandler((task, pool) -> logger.warn("Thumbnail queue full, skipping thumbnail generation"));
+        executor.initialize();
+        return executor;
+    }
+}
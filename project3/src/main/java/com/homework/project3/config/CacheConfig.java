@@ -0,0 +1,45 @@
+package com.homework.project3.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Enables the Caffeine-backed Spring cache. Cache names, size and TTL are set
+ * through spring.cache.* in application.properties; with recordStats enabled
+ * Actuator publishes hit/miss counters as cache.gets metrics.
+ * The cache interceptor is ordered outside the transaction interceptor, so evictions
+ * happen after the service transaction commits and cache hits never open a transaction.
+ * Caffeine stores values by reference: every caller of a cached method gets the same entity
+ * instance, so callers must treat it as read-only and change a copy instead.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String STUDENTS = "students";
+    public static final String STUDENTS_BY_EMAIL = "studentsByEmail";
+    public static final String COURSES = "courses";
+    public static final String COURSES_BY_NAME = "coursesByName";
+    public static final String COURSE_LIST = "courseList";
+    public static final String USERS = "users";
+    public static final String ANALYTICS = "analytics";
+
+    // Login credentials get their own, shorter TTL so a role change made outside the app is picked up quickly
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> userCacheCustomizer(
+            @Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+}
@@ -0,0 +1,32 @@
+package com.homework.project3.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the body of every @Cacheable method, i.e. every cache fill, against the primary. An
+ * update evicts the entry after commit; filling it again from a replica that has not replayed
+ * that commit yet would cache the old row (and old @Version, so the next If-Match fails with
+ * 409) for the whole TTL.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class CacheFillRoutingAspect {
+
+    @Around("@annotation(org.springframework.cache.annotation.Cacheable)")
+    public Object fillFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ReplicaRoutingDataSource.PRIMARY_READS.get() != null) {
+            return joinPoint.proceed();
+        }
+        ReplicaRoutingDataSource.PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.PRIMARY_READS.remove();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.homework.project3.config;
+
+import com.homework.project3.service.TokenService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+
+/**
+ * HS256 signing for the stateless /api/** tokens. The key is read from security.jwt.secret
+ * (base64, at least 32 bytes) so every node behind the load balancer can verify any token.
+ * There is no built-in default: startup fails until JWT_SECRET (or the property) is set.
+ */
+@Configuration
+public class JwtConfig {
+
+    public static final String ROLES_CLAIM = "roles";
+
+    private final SecretKey secretKey;
+    private final String issuer;
+
+    public JwtConfig(@Value("${security.jwt.secret:}") String secret,
+                     @Value("${security.jwt.issuer:project3}") String issuer) {
+        if (!StringUtils.hasText(secret)) {
+            throw new IllegalStateException("security.jwt.secret is not set; provide a base64 key of at least 256 bits via JWT_SECRET");
+        }
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("security.jwt.secret is not valid base64", e);
+        }
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("security.jwt.secret must be at least 256 bits");
+        }
+        this.secretKey = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.issuer = issuer;
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder() {
+        return new NimbusJwtEncoder(new ImmutableSecret<SecurityContext>(secretKey));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(TokenService tokenService) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(secretKey)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        OAuth2TokenValidator<Jwt> notRevoked = jwt -> tokenService.isRevoked(jwt.getId())
+                ? OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Token has been revoked", null))
+                : OAuth2TokenValidatorResult.success();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefaultWithIssuer(issuer), notRevoked));
+        return decoder;
+    }
+
+    // "roles": ["ADMIN"] becomes ROLE_ADMIN, matching the authorities of a form login
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(ROLES_CLAIM);
+        authorities.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return converter;
+    }
+}
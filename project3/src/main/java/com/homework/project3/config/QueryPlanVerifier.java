@@ -0,0 +1,107 @@
+package com.homework.project3.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Startup check that runs EXPLAIN on the hot lookup queries and refuses to start if any of
+ * them would scan a whole table. Enable with db.verify-query-plans=true in CI or after a
+ * migration. On PostgreSQL sequential scans are disabled for the check, so a small table
+ * still shows an index plan when a usable index exists and a Seq Scan only when none does.
+ */
+@Component
+@ConditionalOnProperty(name = "db.verify-query-plans", havingValue = "true")
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    // Literal values: only the plan shape matters, not the rows
+    static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("enrollment pair exists", "SELECT 1 FROM enrollments WHERE student_id = 1 AND course_id = 1");
+        HOT_QUERIES.put("enrollments by student", "SELECT id FROM enrollments WHERE student_id = 1");
+        HOT_QUERIES.put("enrollments by course", "SELECT id FROM enrollments WHERE course_id = 1");
+        HOT_QUERIES.put("students by department", "SELECT id FROM students WHERE department = 'x'");
+        HOT_QUERIES.put("students by email", "SELECT id FROM students WHERE email = 'x'");
+        HOT_QUERIES.put("students by profile image", "SELECT 1 FROM students WHERE profile_image = 'x'");
+        HOT_QUERIES.put("courses by name", "SELECT id FROM courses WHERE name = 'x'");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryPlanVerifier(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> failures = findFullScans(HOT_QUERIES);
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Hot queries without index support: " + String.join("; ", failures));
+        }
+        logger.info("Verified query plans of {} hot queries", HOT_QUERIES.size());
+    }
+
+    // "name -> plan" for every query whose plan scans a whole table; package-private for QueryPlanVerifierTest
+    List<String> findFullScans(Map<String, String> queries) {
+        List<String> failures = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> verify(connection, queries));
+        return failures != null ? failures : List.of();
+    }
+
+    private List<String> verify(Connection connection, Map<String, String> queries) throws SQLException {
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres");
+        List<String> failures = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("SET enable_seqscan = off");
+            }
+            try {
+                for (Map.Entry<String, String> query : queries.entrySet()) {
+                    String plan = explain(statement, query.getValue());
+                    logger.debug("Plan for {}: {}", query.getKey(), plan);
+                    if (isFullScan(plan, postgres)) {
+                        failures.add(query.getKey() + " -> " + plan.replace('\n', ' '));
+                    }
+                }
+            } finally {
+                if (postgres) {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString().trim();
+    }
+
+    // PostgreSQL prints "Seq Scan on <table>"; H2 marks an unindexed access with ".tableScan"
+    private static boolean isFullScan(String plan, boolean postgres) {
+        return postgres ? plan.contains("Seq Scan") : plan.contains(".tableScan");
+    }
+}
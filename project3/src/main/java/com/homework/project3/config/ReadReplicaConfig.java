@@ -0,0 +1,96 @@
+package com.homework.project3.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the single auto-configured pool with a primary and a read replica pool when
+ * datasource.replica.url is set. Both pools take the spring.datasource.hikari.* settings; the
+ * replica's can be overridden under datasource.replica.hikari.*. Services opt in by declaring
+ * {@code @Transactional(readOnly = true)}; anything else keeps using the primary.
+ * Locally, two H2 databases (or two PostgreSQL containers) with lag-query "SELECT 0" will do.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReadReplicaConfig implements DisposableBean {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${datasource.replica.url}") String replicaUrl,
+                                 @Value("${datasource.replica.username:}") String replicaUsername,
+                                 @Value("${datasource.replica.password:}") String replicaPassword,
+                                 @Value("${datasource.replica.lag-query}") String lagQuery,
+                                 @Value("${datasource.replica.max-lag:5s}") Duration maxLag,
+                                 @Value("${datasource.replica.lag-check-interval:5s}") Duration checkInterval,
+                                 @Value("${datasource.replica.read-your-writes-window:${datasource.replica.max-lag:5s}}") Duration readYourWritesWindow) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(StringUtils.hasText(replicaUsername) ? replicaUsername : properties.determineUsername())
+                .password(StringUtils.hasText(replicaUsername) ? replicaPassword : properties.determinePassword())
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        // The pools are not beans of their own (that would make the DataSource injection ambiguous),
+        // so Boot's Hikari metrics binder does not see them; register them here instead
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, lagQuery, maxLag, checkInterval, readYourWritesWindow);
+        routingDataSource.afterPropertiesSet();
+        if (registry != null) {
+            Gauge.builder("datasource.replica.lag", routingDataSource, ReplicaRoutingDataSource::getLagSeconds)
+                    .baseUnit("seconds")
+                    .description("Replay lag of the read replica, NaN while unreachable")
+                    .register(registry);
+            Gauge.builder("datasource.replica.usable", routingDataSource, ds -> ds.isReplicaUsable() ? 1 : 0)
+                    .description("1 while read-only transactions are routed to the replica")
+                    .register(registry);
+        }
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Override
+    public void destroy() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.homework.project3.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else (writes,
+ * non-transactional work such as Flyway) to the primary. A background check measures the
+ * replica's replay lag; while it is above maxLag or the replica cannot be reached, read-only
+ * transactions fall back to the primary. Must sit behind a LazyConnectionDataSourceProxy so the
+ * connection is only fetched once the transaction's read-only flag is known.
+ * <p>
+ * Two cases read from the primary although the transaction is read-only, so a write is never
+ * followed by a stale read of it: a user who committed a write within the last
+ * read-your-writes window (tracked per authenticated user on this node), and cache fills
+ * (see {@link CacheFillRoutingAspect}), since a stale row cached after an eviction would be
+ * served to everyone, old @Version included, until it expires.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    enum Target { PRIMARY, REPLICA }
+
+    // Set while a read on this thread must see the primary's latest commits
+    static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final ScheduledExecutorService checker;
+    private final Cache<String, Boolean> recentWriters;
+    private volatile boolean replicaUsable;
+    private volatile boolean checked;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery,
+                                    Duration maxLag, Duration checkInterval, Duration readYourWritesWindow) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWritesWindow).build();
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkLag();
+        long intervalMillis = checkInterval.toMillis();
+        checker.scheduleWithFixedDelay(this::checkLag, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit(user);
+            return Target.PRIMARY;
+        }
+        if (replicaUsable && PRIMARY_READS.get() == null && (user == null || recentWriters.getIfPresent(user) == null)) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    // The window starts at commit, when the replica starts to replay the write
+    private void rememberWriteOnCommit(String user) {
+        if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(user, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    // NaN while the replica is unreachable
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    void checkLag() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (SQLException | RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (replicaUsable || !checked) {
+                logger.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            }
+        }
+        if (usable != replicaUsable) {
+            if (usable) {
+                logger.info("Replica lag {}s within {}, routing read-only transactions to the replica", lagSeconds, maxLag);
+            } else if (!Double.isNaN(lagSeconds)) {
+                logger.warn("Replica lag {}s exceeds {}, reading from the primary", lagSeconds, maxLag);
+            }
+            replicaUsable = usable;
+        }
+        checked = true;
+    }
+
+    @Override
+    public void close() {
+        checker.shutdownNow();
+        for (Object target : getResolvedDataSources().values()) {
+            if (target instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close datasource: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
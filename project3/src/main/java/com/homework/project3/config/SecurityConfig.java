@@ -2,23 +2,34 @@ package com.homework.project3.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final String BCRYPT = "bcrypt";
     private final JdbcTemplate jdbcTemplate;
 
     public SecurityConfig(JdbcTemplate jdbcTemplate) {
@@ -33,13 +44,58 @@ public class SecurityConfig {
         }
     }
 
+    /**
+     * /api/** runs without server-side sessions: clients authenticate with a bearer token from
+     * /api/auth/token and no session is ever created for them. A browser that already has a
+     * login session (typeahead calls from the enrollment forms) is still recognised, and CSRF
+     * protection stays on for those cookie-authenticated calls.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
+        http
+                .securityMatcher("/api/**")
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.POST, "/api/auth/token").permitAll()
+                        .requestMatchers("/api/auth/revoke").authenticated()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.NEVER))
+                .csrf(csrf -> csrf.ignoringRequestMatchers(
+                        request -> request.getHeader(HttpHeaders.AUTHORIZATION) != null
+                                && request.getHeader(HttpHeaders.AUTHORIZATION).startsWith("Bearer "),
+                        new AntPathRequestMatcher("/api/auth/token", "POST")))
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
+                );
+        return http.build();
+    }
+
+    /**
+     * Prometheus scrapes with HTTP basic credentials of a users row holding ROLE_METRICS (or an
+     * admin). Stateless, so a scrape every few seconds never piles up sessions.
+     */
     @Bean
+    @Order(2)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasAnyRole("METRICS", "ADMIN"))
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable());
+        return http.build();
+    }
+
+    @Bean
+    @Order(3)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/webjars/**", "/css/**", "/js/**", "/images/**", "/Uploads/**", "/favicon.ico").permitAll()
                         .requestMatchers("/login", "/perform_login", "/logout").permitAll()
-                        .requestMatchers("/api/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/students/add", "/students/edit/**", "/students/delete/**").hasRole("ADMIN")
                         .requestMatchers("/courses/add", "/courses/edit/**", "/courses/delete/**").hasRole("ADMIN")
                         .requestMatchers("/enrollments/add", "/enrollments/edit/**", "/enrollments/delete/**").hasRole("ADMIN")
@@ -66,42 +122,19 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt for new and rehashed passwords. Rows written before this change hold plain text
+     * without an {id} prefix; they still match through the no-op fallback and are re-encoded
+     * by CachedUserDetailsService.updatePassword on the user's next successful login.
+     */
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> {
-            logger.info("Attempting to load user: {}", username);
-            String sql = "SELECT username, password, role FROM users WHERE username = ?";
-            try {
-                return jdbcTemplate.query(sql, new Object[]{username}, rs -> {
-                    if (rs.next()) {
-                        String dbUsername = rs.getString("username");
-                        String dbPassword = rs.getString("password");
-                        String dbRole = rs.getString("role");
-                        logger.info("User found - Username: {}, Password: {}, Role: {}", dbUsername, dbPassword, dbRole);
-                        if (dbPassword == null || dbPassword.trim().isEmpty()) {
-                            logger.error("Password is null or empty for user: {}", dbUsername);
-                            throw new RuntimeException("Password cannot be null or empty");
-                        }
-                        String role = dbRole.startsWith("ROLE_") ? dbRole.substring(5) : dbRole;
-                        return User.withUsername(dbUsername)
-                                .password(dbPassword)
-                                .roles(role)
-                                .build();
-                    } else {
-                        logger.warn("User not found: {}", username);
-                        throw new UsernameNotFoundException("User not found with username: " + username);
-                    }
-                });
-            } catch (Exception e) {
-                logger.error("Error while loading user {}: {}", username, e.getMessage(), e);
-                throw new RuntimeException("Failed to load user: " + username, e);
-            }
-        };
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        logger.info("Configuring NoOpPasswordEncoder for plain text passwords.");
-        return NoOpPasswordEncoder.getInstance();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        logger.info("Configuring BCrypt password encoder with strength {}", strength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(strength));
+        encoders.put("noop", NoOpPasswordEncoder.getInstance());
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        return encoder;
     }
-}
\ No newline at end of file
+}
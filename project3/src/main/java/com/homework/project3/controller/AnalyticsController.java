@@ -0,0 +1,55 @@
+package com.homework.project3.controller;
+
+import com.homework.project3.model.AttendanceReportDTO;
+import com.homework.project3.model.RevenueReportDTO;
+import com.homework.project3.service.AnalyticsGroup;
+import com.homework.project3.service.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @Operation(summary = "Tuition revenue report", description = "Revenue per course or department within each semester, with semester share and rank")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the report"),
+            @ApiResponse(responseCode = "400", description = "Invalid grouping"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueReportDTO>> getRevenue(@RequestParam(required = false) String semester,
+                                                             @RequestParam(defaultValue = "COURSE") AnalyticsGroup groupBy) {
+        return ResponseEntity.ok(analyticsService.getRevenue(semester, groupBy));
+    }
+
+    @Operation(summary = "Attendance report", description = "Attendance rate per class date in a date range, optionally per course or department")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the report"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or grouping"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/attendance")
+    public ResponseEntity<List<AttendanceReportDTO>> getAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) AnalyticsGroup groupBy) {
+        return ResponseEntity.ok(analyticsService.getAttendance(from, to, groupBy));
+    }
+}
@@ -0,0 +1,67 @@
+package com.homework.project3.controller;
+
+import com.homework.project3.model.TokenRequestDTO;
+import com.homework.project3.model.TokenResponseDTO;
+import com.homework.project3.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+
+    public AuthController(AuthenticationConfiguration authenticationConfiguration, TokenService tokenService) throws Exception {
+        this.authenticationManager = authenticationConfiguration.getAuthenticationManager();
+        this.tokenService = tokenService;
+    }
+
+    @Operation(summary = "Issue an API token", description = "Exchanges username and password for a bearer token used on /api/**")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued"),
+            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+    })
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponseDTO> issueToken(@Valid @RequestBody TokenRequestDTO request) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String token = tokenService.issue(authentication);
+        return ResponseEntity.ok(new TokenResponseDTO(token, "Bearer", tokenService.getTtl().toSeconds()));
+    }
+
+    @Operation(summary = "Revoke the current API token", description = "Rejects the calling bearer token on further requests until it expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Token revoked"),
+            @ApiResponse(responseCode = "400", description = "Request was not made with a bearer token")
+    })
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revokeToken(@AuthenticationPrincipal Jwt jwt) {
+        if (jwt == null) {
+            throw new IllegalArgumentException("Only bearer tokens can be revoked");
+        }
+        tokenService.revoke(jwt.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
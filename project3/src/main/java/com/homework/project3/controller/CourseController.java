@@ -2,16 +2,20 @@ package com.homework.project3.controller;
 
 import com.homework.project3.model.Course;
 import com.homework.project3.model.CourseDTO;
-import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.CourseStatsDTO;
+import com.homework.project3.model.SearchResultDTO;
 import com.homework.project3.model.Student;
 import com.homework.project3.model.StudentDTO;
 import com.homework.project3.service.CourseService;
+import com.homework.project3.service.StudentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Controller
@@ -39,8 +44,9 @@ public class CourseController {
         try {
             logger.info("Getting all courses");
             List<Course> courses = courseService.getAllCourses();
-            List<CourseDTO> courseDTOs = courses.stream().map(CourseController::convertToCourseDTO).collect(Collectors.toList());
+            List<CourseDTO> courseDTOs = convertToCourseDTOs(courses, courseService.getEnrollmentIdsByCourse(courses));
             model.addAttribute("courses", courseDTOs);
+            model.addAttribute("enrollmentCounts", courseService.getEnrollmentCounts());
             logger.info("Successfully retrieved {} courses", courses.size());
         } catch (Exception e) {
             logger.error("Error loading courses: {}", e.getMessage(), e);
@@ -54,8 +60,8 @@ public class CourseController {
         try {
             logger.info("Showing edit form for course with ID: {}", id);
             Course course = courseService.getCourseById(id);
-            model.addAttribute("course", convertToCourseDTO(course));
-            logger.info("Successfully loaded course for editing: {}", course);
+            model.addAttribute("course", convertToCourseDTO(course, courseService));
+            logger.debug("Successfully loaded course for editing, ID: {}", course.getId());
         } catch (Exception e) {
             logger.error("Error loading course for editing: {}", e.getMessage(), e);
             model.addAttribute("errorMessage", "Error loading course: " + e.getMessage());
@@ -90,10 +96,14 @@ public class CourseController {
             // Update course data
             Course course = convertToCourse(courseDTO);
             course.setId(id);
+            course.setVersion(courseDTO.getVersion());
             courseService.updateCourse(id, course);
             logger.info("Course updated successfully");
             redirectAttributes.addFlashAttribute("successMessage", "Course updated successfully!");
 
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Course was changed by someone else in the meantime. Please review the current data and try again.");
+            return "redirect:/courses/edit/" + id;
         } catch (Exception e) {
             logger.error("Error updating course: {}", e.getMessage(), e);
             redirectAttributes.addFlashAttribute("errorMessage", "Error updating course: " + e.getMessage());
@@ -106,9 +116,7 @@ public class CourseController {
     @GetMapping("/delete/{id}")
     public String deleteCourse(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
-            Course course = courseService.getCourseById(id);
-            int enrollmentCount = course.getEnrollments() != null ? course.getEnrollments().size() : 0;
-            courseService.deleteCourse(id);
+            int enrollmentCount = courseService.deleteCourse(id);
             redirectAttributes.addFlashAttribute("successMessage",
                 String.format("Kurs ve ilişkili %d kayıt başarıyla silindi!", enrollmentCount));
         } catch (Exception e) {
@@ -121,7 +129,7 @@ public class CourseController {
     public String viewCourse(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         try {
             Course course = courseService.getCourseById(id);
-            model.addAttribute("course", convertToCourseDTO(course));
+            model.addAttribute("course", convertToCourseDTO(course, courseService));
             return "view-course"; // Assume a view-course.html exists
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Course not found!");
@@ -166,9 +174,11 @@ public class CourseController {
     public static class CourseApiController {
 
         private final CourseService courseService;
+        private final StudentService studentService;
 
-        public CourseApiController(CourseService courseService) {
+        public CourseApiController(CourseService courseService, StudentService studentService) {
             this.courseService = courseService;
+            this.studentService = studentService;
         }
 
         @Operation(summary = "Get all courses", description = "Retrieve a list of all courses")
@@ -179,10 +189,31 @@ public class CourseController {
         @GetMapping
         public ResponseEntity<List<CourseDTO>> getAllCourses() {
             List<Course> courses = courseService.getAllCourses();
-            List<CourseDTO> courseDTOs = courses.stream().map(CourseController::convertToCourseDTO).collect(Collectors.toList());
+            List<CourseDTO> courseDTOs = convertToCourseDTOs(courses, courseService.getEnrollmentIdsByCourse(courses));
             return ResponseEntity.ok(courseDTOs);
         }
 
+        @Operation(summary = "Search courses", description = "Typeahead lookup by course name or word prefix")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Successfully retrieved matching courses"),
+                @ApiResponse(responseCode = "500", description = "Internal server error")
+        })
+        @GetMapping("/search")
+        public ResponseEntity<List<SearchResultDTO>> searchCourses(@RequestParam("q") String query,
+                                                                   @RequestParam(required = false) Integer limit) {
+            return ResponseEntity.ok(courseService.searchCourses(query, limit));
+        }
+
+        @Operation(summary = "Get course statistics", description = "Enrollment count, tuition total and attendance rate per course")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Successfully retrieved course statistics"),
+                @ApiResponse(responseCode = "500", description = "Internal server error")
+        })
+        @GetMapping("/stats")
+        public ResponseEntity<List<CourseStatsDTO>> getCourseStats() {
+            return ResponseEntity.ok(courseService.getCourseStats());
+        }
+
         @Operation(summary = "Get a course by ID", description = "Retrieve a specific course by its ID")
         @ApiResponses(value = {
                 @ApiResponse(responseCode = "200", description = "Successfully retrieved the course"),
@@ -192,7 +223,7 @@ public class CourseController {
         @GetMapping("/{id}")
         public ResponseEntity<CourseDTO> getCourseById(@PathVariable Long id) {
             Course course = courseService.getCourseById(id);
-            return ResponseEntity.ok(convertToCourseDTO(course));
+            return ResponseEntity.ok().eTag(VersionETags.eTag(course.getVersion())).body(convertToCourseDTO(course, courseService));
         }
 
         @Operation(summary = "Add a new course", description = "Create a new course")
@@ -205,7 +236,7 @@ public class CourseController {
         public ResponseEntity<CourseDTO> addCourse(@Valid @RequestBody CourseDTO courseDTO) {
             Course course = convertToCourse(courseDTO);
             Course savedCourse = courseService.addCourse(course);
-            return ResponseEntity.status(201).body(convertToCourseDTO(savedCourse));
+            return ResponseEntity.status(201).body(convertToCourseDTO(savedCourse, courseService));
         }
 
         @Operation(summary = "Update a course by ID", description = "Update an existing course by its ID")
@@ -213,13 +244,17 @@ public class CourseController {
                 @ApiResponse(responseCode = "200", description = "Course updated successfully"),
                 @ApiResponse(responseCode = "404", description = "Course not found"),
                 @ApiResponse(responseCode = "400", description = "Invalid input"),
+                @ApiResponse(responseCode = "409", description = "Course was changed since the version given in If-Match"),
+                @ApiResponse(responseCode = "412", description = "If-Match holds a weak ETag, which never matches"),
                 @ApiResponse(responseCode = "500", description = "Internal server error")
         })
         @PutMapping("/{id}")
-        public ResponseEntity<CourseDTO> updateCourse(@PathVariable Long id, @Valid @RequestBody CourseDTO courseDTO) {
+        public ResponseEntity<CourseDTO> updateCourse(@PathVariable Long id, @Valid @RequestBody CourseDTO courseDTO,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
             Course course = convertToCourse(courseDTO);
+            course.setVersion(VersionETags.expectedVersion(ifMatch, courseDTO.getVersion()));
             Course updatedCourse = courseService.updateCourse(id, course);
-            return ResponseEntity.ok(convertToCourseDTO(updatedCourse));
+            return ResponseEntity.ok().eTag(VersionETags.eTag(updatedCourse.getVersion())).body(convertToCourseDTO(updatedCourse, courseService));
         }
 
         @Operation(summary = "Delete a course by ID", description = "Delete a course by its ID")
@@ -243,14 +278,27 @@ public class CourseController {
         @GetMapping("/{courseId}/students")
         public ResponseEntity<List<StudentDTO>> getStudentsInCourse(@PathVariable Long courseId) {
             List<Student> students = courseService.getStudentsInCourse(courseId);
-            List<StudentDTO> studentDTOs = students.stream().map(CourseController::convertToStudentDTO).collect(Collectors.toList());
+            Map<Long, List<Long>> enrollmentIds = studentService.getEnrollmentIdsByStudent(students);
+            List<StudentDTO> studentDTOs = students.stream()
+                    .map(student -> convertToStudentDTO(student, enrollmentIds.getOrDefault(student.getId(), List.of())))
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(studentDTOs);
         }
     }
 
-    private static CourseDTO convertToCourseDTO(Course course) {
-        List<Long> enrollmentIds = course.getEnrollments().stream().map(Enrollment::getId).collect(Collectors.toList());
-        return new CourseDTO(course.getId(), course.getName(), course.getCredit(), course.getDescription(), course.getSemester(), enrollmentIds);
+    // Courses may come from the cache detached from any session, so enrollment ids are queried rather than lazily loaded
+    private static CourseDTO convertToCourseDTO(Course course, CourseService courseService) {
+        return convertToCourseDTOs(List.of(course), courseService.getEnrollmentIdsByCourse(List.of(course))).get(0);
+    }
+
+    private static List<CourseDTO> convertToCourseDTOs(List<Course> courses, Map<Long, List<Long>> enrollmentIdsByCourse) {
+        return courses.stream()
+                .map(course -> convertToCourseDTO(course, enrollmentIdsByCourse.getOrDefault(course.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private static CourseDTO convertToCourseDTO(Course course, List<Long> enrollmentIds) {
+        return new CourseDTO(course.getId(), course.getName(), course.getCredit(), course.getDescription(), course.getSemester(), enrollmentIds, course.getVersion());
     }
 
     private static Course convertToCourse(CourseDTO courseDTO) {
@@ -263,9 +311,7 @@ public class CourseController {
         return course;
     }
 
-    private static StudentDTO convertToStudentDTO(Student student) {
-        List<Long> enrollmentIds = student.getEnrollments() != null ?
-                student.getEnrollments().stream().map(Enrollment::getId).collect(Collectors.toList()) : List.of();
+    private static StudentDTO convertToStudentDTO(Student student, List<Long> enrollmentIds) {
         StudentDTO studentDTO = new StudentDTO();
         studentDTO.setId(student.getId());
         studentDTO.setName(student.getName());
@@ -3,7 +3,9 @@ package com.homework.project3.controller;
 import com.homework.project3.model.Course;
 import com.homework.project3.model.Enrollment;
 import com.homework.project3.model.EnrollmentDTO;
+import com.homework.project3.model.ImportResultDTO;
 import com.homework.project3.model.Student;
+import com.homework.project3.service.EnrollmentImportService;
 import com.homework.project3.service.EnrollmentService;
 import com.homework.project3.service.StudentService;
 import com.homework.project3.service.CourseService;
@@ -11,13 +13,18 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -40,8 +47,6 @@ public class EnrollmentController {
     public String showEnrollmentsPage(Model model) {
         try {
             model.addAttribute("enrollments", enrollmentService.getAllEnrollments());
-            model.addAttribute("students", studentService.getAllStudents());
-            model.addAttribute("courses", courseService.getAllCourses());
         } catch (Exception e) {
             model.addAttribute("errorMessage", "Error loading enrollments: " + e.getMessage());
         }
@@ -52,8 +57,6 @@ public class EnrollmentController {
     public String showEditEnrollmentPage(@PathVariable Long id, Model model) {
         try {
             model.addAttribute("enrollment", enrollmentService.getEnrollmentById(id));
-            model.addAttribute("students", studentService.getAllStudents());
-            model.addAttribute("courses", courseService.getAllCourses());
         } catch (Exception e) {
             model.addAttribute("errorMessage", "Error loading enrollment: " + e.getMessage());
             return "redirect:/enrollments";
@@ -69,6 +72,7 @@ public class EnrollmentController {
         }
         try {
             Enrollment updatedEnrollment = convertToEnrollment(enrollmentDTO);
+            updatedEnrollment.setVersion(enrollmentDTO.getVersion());
             enrollmentService.updateEnrollment(id, updatedEnrollment);
             redirectAttributes.addFlashAttribute("successMessage", "Enrollment updated successfully!");
         } catch (Exception e) {
@@ -91,15 +95,8 @@ public class EnrollmentController {
 
     @GetMapping("/add")
     public String showAddForm(Model model) {
-        try {
-            model.addAttribute("enrollment", new EnrollmentDTO());
-            model.addAttribute("students", studentService.getAllStudents());
-            model.addAttribute("courses", courseService.getAllCourses());
-            return "add-enrollment";
-        } catch (Exception e) {
-            model.addAttribute("errorMessage", "Error loading form: " + e.getMessage());
-            return "redirect:/enrollments";
-        }
+        model.addAttribute("enrollment", new EnrollmentDTO());
+        return "add-enrollment";
     }
 
     @PostMapping("/add")
@@ -108,12 +105,7 @@ public class EnrollmentController {
                                 RedirectAttributes redirectAttributes,
                                 Model model) {
         if (result.hasErrors()) {
-            try {
-                model.addAttribute("students", studentService.getAllStudents());
-                model.addAttribute("courses", courseService.getAllCourses());
-            } catch (Exception e) {
-                model.addAttribute("errorMessage", "Error loading form data: " + e.getMessage());
-            }
+            addSelectionLabels(enrollmentDTO, model);
             return "add-enrollment";
         }
 
@@ -125,17 +117,27 @@ public class EnrollmentController {
             redirectAttributes.addFlashAttribute("successMessage", "Enrollment added successfully!");
             return "redirect:/enrollments";
         } catch (Exception e) {
-            try {
-                model.addAttribute("students", studentService.getAllStudents());
-                model.addAttribute("courses", courseService.getAllCourses());
-            } catch (Exception ex) {
-                model.addAttribute("errorMessage", "Error loading form data: " + ex.getMessage());
-            }
+            addSelectionLabels(enrollmentDTO, model);
             model.addAttribute("errorMessage", "Error adding enrollment: " + e.getMessage());
             return "add-enrollment";
         }
     }
 
+    // Re-fills the typeahead inputs when the form is redisplayed; lookups hit the student/course cache
+    private void addSelectionLabels(EnrollmentDTO enrollmentDTO, Model model) {
+        try {
+            if (enrollmentDTO.getStudentId() != null) {
+                Student student = studentService.getStudentById(enrollmentDTO.getStudentId());
+                model.addAttribute("studentLabel", student.getName() + " " + student.getSurname() + " (" + student.getEmail() + ")");
+            }
+            if (enrollmentDTO.getCourseId() != null) {
+                model.addAttribute("courseLabel", courseService.getCourseById(enrollmentDTO.getCourseId()).getName());
+            }
+        } catch (Exception e) {
+            // Unknown ids are reported by the form's own error message
+        }
+    }
+
     @GetMapping("/delete/{id}")
     public String deleteEnrollment(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
@@ -153,9 +155,11 @@ public class EnrollmentController {
     public static class EnrollmentApiController {
 
         private final EnrollmentService enrollmentService;
+        private final EnrollmentImportService enrollmentImportService;
 
-        public EnrollmentApiController(EnrollmentService enrollmentService) {
+        public EnrollmentApiController(EnrollmentService enrollmentService, EnrollmentImportService enrollmentImportService) {
             this.enrollmentService = enrollmentService;
+            this.enrollmentImportService = enrollmentImportService;
         }
 
         @Operation(summary = "Get all enrollments", description = "Retrieve all enrollments")
@@ -179,7 +183,7 @@ public class EnrollmentController {
         @GetMapping("/{id}")
         public ResponseEntity<EnrollmentDTO> getEnrollmentById(@PathVariable Long id) {
             Enrollment enrollment = enrollmentService.getEnrollmentById(id);
-            return ResponseEntity.ok(convertToEnrollmentDTO(enrollment));
+            return ResponseEntity.ok().eTag(VersionETags.eTag(enrollment.getVersion())).body(convertToEnrollmentDTO(enrollment));
         }
 
         @Operation(summary = "Create a new enrollment", description = "Enrolls a student in a course")
@@ -200,13 +204,39 @@ public class EnrollmentController {
         @ApiResponses(value = {
                 @ApiResponse(responseCode = "200", description = "Enrollment successfully retrieved"),
                 @ApiResponse(responseCode = "404", description = "No enrollment found"),
+                @ApiResponse(responseCode = "409", description = "Enrollment was changed since the version given in If-Match"),
+                @ApiResponse(responseCode = "412", description = "If-Match holds a weak ETag, which never matches"),
                 @ApiResponse(responseCode = "500", description = "Server error")
         })
         @PutMapping("/{id}")
-        public ResponseEntity<EnrollmentDTO> updateEnrollment(@PathVariable Long id, @RequestBody EnrollmentDTO enrollmentDTO) {
+        public ResponseEntity<EnrollmentDTO> updateEnrollment(@PathVariable Long id, @RequestBody EnrollmentDTO enrollmentDTO,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
             Enrollment updatedEnrollment = convertToEnrollment(enrollmentDTO);
+            updatedEnrollment.setVersion(VersionETags.expectedVersion(ifMatch, enrollmentDTO.getVersion()));
             Enrollment enrollment = enrollmentService.updateEnrollment(id, updatedEnrollment);
-            return ResponseEntity.ok(convertToEnrollmentDTO(enrollment));
+            return ResponseEntity.ok().eTag(VersionETags.eTag(enrollment.getVersion())).body(convertToEnrollmentDTO(enrollment));
+        }
+
+        @Operation(summary = "Import enrollments from CSV", description = "Streams a CSV body (studentId,courseId,classDate,tuition,attendance) and inserts it in batches")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Import finished; see the per-row errors for rejected lines"),
+                @ApiResponse(responseCode = "500", description = "Server error")
+        })
+        @PostMapping(value = "/import", consumes = "text/csv")
+        public ResponseEntity<ImportResultDTO> importEnrollments(InputStream body) throws IOException {
+            return ResponseEntity.ok(enrollmentImportService.importCsv(body));
+        }
+
+        @Operation(summary = "Import enrollments from an uploaded CSV file", description = "Same as the text/csv import, for multipart uploads")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Import finished; see the per-row errors for rejected lines"),
+                @ApiResponse(responseCode = "500", description = "Server error")
+        })
+        @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        public ResponseEntity<ImportResultDTO> importEnrollmentsFile(@RequestParam("file") MultipartFile file) throws IOException {
+            try (InputStream input = file.getInputStream()) {
+                return ResponseEntity.ok(enrollmentImportService.importCsv(input));
+            }
         }
 
         @Operation(summary = "Delete an enrollment", description = "Deletes a specific enrollment")
@@ -222,14 +252,15 @@ public class EnrollmentController {
         }
     }
 
-    private static EnrollmentDTO convertToEnrollmentDTO(Enrollment enrollment) {
+    static EnrollmentDTO convertToEnrollmentDTO(Enrollment enrollment) {
         return new EnrollmentDTO(
                 enrollment.getId(),
                 enrollment.getStudent().getId(),
                 enrollment.getCourse().getId(),
                 enrollment.getClassDate(),
                 enrollment.getTuition(),
-                enrollment.isAttendance()
+                enrollment.isAttendance(),
+                enrollment.getVersion()
         );
     }
 
@@ -0,0 +1,64 @@
+package com.homework.project3.controller;
+
+import com.homework.project3.service.ExportFormat;
+import com.homework.project3.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @Operation(summary = "Export students", description = "Streams every student as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping("/students")
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("students", format, out -> exportService.exportStudents(format, out));
+    }
+
+    @Operation(summary = "Export courses", description = "Streams every course as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping("/courses")
+    public ResponseEntity<StreamingResponseBody> exportCourses(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("courses", format, out -> exportService.exportCourses(format, out));
+    }
+
+    @Operation(summary = "Export enrollments", description = "Streams every enrollment as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export stream started"),
+            @ApiResponse(responseCode = "500", description = "Server error")
+    })
+    @GetMapping("/enrollments")
+    public ResponseEntity<StreamingResponseBody> exportEnrollments(@RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return stream("enrollments", format, out -> exportService.exportEnrollments(format, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, StreamingResponseBody body) {
+        String extension = format == ExportFormat.CSV ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + extension + "\"")
+                .body(body);
+    }
+}
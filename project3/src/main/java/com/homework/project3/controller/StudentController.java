@@ -1,16 +1,25 @@
 package com.homework.project3.controller;
 
+import com.homework.project3.model.BulkResultDTO;
+import com.homework.project3.model.SearchResultDTO;
 import com.homework.project3.model.Student;
-import com.homework.project3.model.Enrollment;
 import com.homework.project3.model.StudentDTO;
+import com.homework.project3.model.StudentPageDTO;
+import com.homework.project3.service.CursorCodec;
+import com.homework.project3.service.StudentBulkService;
 import com.homework.project3.service.StudentService;
 import com.homework.project3.service.FileStorageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -21,7 +30,10 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Controller
@@ -38,13 +50,27 @@ public class StudentController {
     }
 
     @GetMapping
-    public String getAllStudents(Model model) {
+    public String getAllStudents(@RequestParam(required = false) String department,
+                                 @RequestParam(value = "name", required = false) String namePrefix,
+                                 @RequestParam(defaultValue = "id") String sort,
+                                 @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                 @RequestParam(required = false) Integer size,
+                                 @RequestParam(required = false) String cursor,
+                                 Model model) {
+        model.addAttribute("department", department);
+        model.addAttribute("name", namePrefix);
+        model.addAttribute("sort", sort);
+        model.addAttribute("direction", direction);
+        model.addAttribute("size", size);
         try {
-            logger.info("Getting all students");
-            List<Student> students = studentService.getAllStudents();
-            List<StudentDTO> studentDTOs = students.stream().map(StudentController::convertToStudentDTO).collect(Collectors.toList());
+            logger.info("Getting student page");
+            Window<Student> page = studentService.getStudentPage(department, namePrefix, sort, direction, size, cursor);
+            List<StudentDTO> studentDTOs = convertToStudentDTOs(page.getContent(), studentService.getEnrollmentIdsByStudent(page.getContent()));
+            studentDTOs.forEach(dto -> dto.setProfileThumbnail(fileStorageService.resolveThumbnail(dto.getProfileImage())));
             model.addAttribute("students", studentDTOs);
-            logger.info("Successfully retrieved {} students", students.size());
+            model.addAttribute("nextCursor", CursorCodec.nextCursor(page));
+            model.addAttribute("firstPage", cursor == null || cursor.isBlank());
+            logger.info("Successfully retrieved {} students", studentDTOs.size());
         } catch (Exception e) {
             logger.error("Error loading students: {}", e.getMessage(), e);
             model.addAttribute("errorMessage", "Error loading students: " + e.getMessage());
@@ -57,8 +83,8 @@ public class StudentController {
         try {
             logger.info("Showing edit form for student with ID: {}", id);
             Student student = studentService.getStudentById(id);
-            model.addAttribute("student", convertToStudentDTO(student));
-            logger.info("Successfully loaded student for editing: {}", student);
+            model.addAttribute("student", convertToStudentDTO(student, studentService));
+            logger.debug("Successfully loaded student for editing, ID: {}", student.getId());
         } catch (Exception e) {
             logger.error("Error loading student for editing: {}", e.getMessage(), e);
             model.addAttribute("errorMessage", "Error loading student: " + e.getMessage());
@@ -94,6 +120,7 @@ public class StudentController {
             // Update student data
             Student student = new Student();
             student.setId(id);
+            student.setVersion(studentDTO.getVersion());
             student.setName(studentDTO.getName());
             student.setSurname(studentDTO.getSurname());
             student.setEmail(studentDTO.getEmail());
@@ -121,6 +148,9 @@ public class StudentController {
             logger.info("Student updated successfully");
             redirectAttributes.addFlashAttribute("successMessage", "Student updated successfully!");
 
+        } catch (OptimisticLockingFailureException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Student was changed by someone else in the meantime. Please review the current data and try again.");
+            return "redirect:/students/edit/" + id;
         } catch (Exception e) {
             logger.error("Error updating student: {}", e.getMessage(), e);
             redirectAttributes.addFlashAttribute("errorMessage", "Error updating student: " + e.getMessage());
@@ -133,11 +163,8 @@ public class StudentController {
     @GetMapping("/delete/{id}")
     public String deleteStudent(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
-            Student student = studentService.getStudentById(id);
-            int enrollmentCount = student.getEnrollments() != null ? student.getEnrollments().size() : 0;
             studentService.deleteStudent(id);
-            redirectAttributes.addFlashAttribute("successMessage",
-                    String.format("Student deleted successfully!", enrollmentCount));
+            redirectAttributes.addFlashAttribute("successMessage", "Student deleted successfully!");
 
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error deleting student: " + e.getMessage());
@@ -149,7 +176,7 @@ public class StudentController {
     public String viewStudent(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         try {
             Student student = studentService.getStudentById(id);
-            model.addAttribute("student", convertToStudentDTO(student));
+            model.addAttribute("student", convertToStudentDTO(student, studentService));
             return "profile"; // profile.html dosyasını kullanacak
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Student not found!");
@@ -199,22 +226,45 @@ public class StudentController {
     public static class StudentApiController {
         private final StudentService studentService;
         private final FileStorageService fileStorageService;
+        private final StudentBulkService studentBulkService;
+        private final Validator validator;
 
-        public StudentApiController(StudentService studentService, FileStorageService fileStorageService) {
+        public StudentApiController(StudentService studentService, FileStorageService fileStorageService,
+                                    StudentBulkService studentBulkService, Validator validator) {
             this.studentService = studentService;
             this.fileStorageService = fileStorageService;
+            this.studentBulkService = studentBulkService;
+            this.validator = validator;
         }
 
-        @Operation(summary = "Get all students", description = "Retrieve a list of all students")
+        @Operation(summary = "Get students", description = "Retrieve a page of students. Pass the returned nextCursor to fetch the following page")
         @ApiResponses(value = {
-                @ApiResponse(responseCode = "200", description = "Successfully retrieved list of students"),
+                @ApiResponse(responseCode = "200", description = "Successfully retrieved page of students"),
+                @ApiResponse(responseCode = "400", description = "Invalid sort field, page size or cursor"),
                 @ApiResponse(responseCode = "500", description = "Internal server error")
         })
         @GetMapping
-        public ResponseEntity<List<StudentDTO>> getAllStudents() {
-            List<Student> students = studentService.getAllStudents();
-            List<StudentDTO> studentDTOs = students.stream().map(StudentController::convertToStudentDTO).collect(Collectors.toList());
-            return ResponseEntity.ok(studentDTOs);
+        public ResponseEntity<StudentPageDTO> getAllStudents(@RequestParam(required = false) String department,
+                                                             @RequestParam(value = "name", required = false) String namePrefix,
+                                                             @RequestParam(defaultValue = "id") String sort,
+                                                             @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                             @RequestParam(required = false) Integer size,
+                                                             @RequestParam(required = false) String cursor) {
+            Window<Student> page = studentService.getStudentPage(department, namePrefix, sort, direction, size, cursor);
+            List<StudentDTO> studentDTOs = convertToStudentDTOs(page.getContent(), studentService.getEnrollmentIdsByStudent(page.getContent()));
+            studentDTOs.forEach(dto -> dto.setProfileThumbnail(fileStorageService.resolveThumbnail(dto.getProfileImage())));
+            return ResponseEntity.ok(new StudentPageDTO(studentDTOs, studentDTOs.size(), page.hasNext(), CursorCodec.nextCursor(page)));
+        }
+
+        @Operation(summary = "Search students", description = "Typeahead lookup by name, surname or email prefix")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Successfully retrieved matching students"),
+                @ApiResponse(responseCode = "500", description = "Internal server error")
+        })
+        @GetMapping("/search")
+        public ResponseEntity<List<SearchResultDTO>> searchStudents(@RequestParam("q") String query,
+                                                                    @RequestParam(required = false) Integer limit) {
+            return ResponseEntity.ok(studentService.searchStudents(query, limit));
         }
 
         @Operation(summary = "Get a student by ID", description = "Retrieve a specific student by its ID")
@@ -226,7 +276,7 @@ public class StudentController {
         @GetMapping("/{id}")
         public ResponseEntity<StudentDTO> getStudentById(@PathVariable Long id) {
             Student student = studentService.getStudentById(id);
-            return ResponseEntity.ok(convertToStudentDTO(student));
+            return ResponseEntity.ok().eTag(VersionETags.eTag(student.getVersion())).body(convertToStudentDTO(student, studentService));
         }
 
         @Operation(summary = "Add a new student", description = "Create a new student")
@@ -239,7 +289,7 @@ public class StudentController {
         public ResponseEntity<StudentDTO> addStudent(@Valid @RequestBody StudentDTO studentDTO) {
             Student student = convertToStudent(studentDTO);
             Student savedStudent = studentService.addStudent(student);
-            return ResponseEntity.status(201).body(convertToStudentDTO(savedStudent));
+            return ResponseEntity.status(201).body(convertToStudentDTO(savedStudent, studentService));
         }
 
         @Operation(summary = "Update a student by ID", description = "Update an existing student by its ID")
@@ -247,13 +297,17 @@ public class StudentController {
                 @ApiResponse(responseCode = "200", description = "Student updated successfully"),
                 @ApiResponse(responseCode = "404", description = "Student not found"),
                 @ApiResponse(responseCode = "400", description = "Invalid input"),
+                @ApiResponse(responseCode = "409", description = "Student was changed since the version given in If-Match"),
+                @ApiResponse(responseCode = "412", description = "If-Match holds a weak ETag, which never matches"),
                 @ApiResponse(responseCode = "500", description = "Internal server error")
         })
         @PutMapping("/{id}")
-        public ResponseEntity<StudentDTO> updateStudent(@PathVariable Long id, @Valid @RequestBody StudentDTO studentDTO) {
+        public ResponseEntity<StudentDTO> updateStudent(@PathVariable Long id, @Valid @RequestBody StudentDTO studentDTO,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
             Student student = convertToStudent(studentDTO);
+            student.setVersion(VersionETags.expectedVersion(ifMatch, studentDTO.getVersion()));
             Student updatedStudent = studentService.updateStudent(id, student);
-            return ResponseEntity.ok(convertToStudentDTO(updatedStudent));
+            return ResponseEntity.ok().eTag(VersionETags.eTag(updatedStudent.getVersion())).body(convertToStudentDTO(updatedStudent, studentService));
         }
 
         @Operation(summary = "Delete a student by ID", description = "Delete a student by its ID")
@@ -268,6 +322,93 @@ public class StudentController {
             return ResponseEntity.noContent().build();
         }
 
+        @Operation(summary = "Create students in bulk", description = "Create up to 10000 students; the response reports the outcome of every item")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+                @ApiResponse(responseCode = "400", description = "Too many items"),
+                @ApiResponse(responseCode = "500", description = "Internal server error")
+        })
+        @PostMapping("/bulk")
+        public ResponseEntity<BulkResultDTO> createStudents(@RequestBody List<StudentDTO> studentDTOs) {
+            BulkResultDTO result = new BulkResultDTO();
+            Map<Integer, Student> valid = validateBulk(studentDTOs, false, result);
+            result.getResults().addAll(studentBulkService.createStudents(valid));
+            return ResponseEntity.ok(summarize(result, studentDTOs.size()));
+        }
+
+        @Operation(summary = "Update students in bulk", description = "Update up to 10000 students by id; the response reports the outcome of every item")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+                @ApiResponse(responseCode = "400", description = "Too many items"),
+                @ApiResponse(responseCode = "500", description = "Internal server error")
+        })
+        @PutMapping("/bulk")
+        public ResponseEntity<BulkResultDTO> updateStudents(@RequestBody List<StudentDTO> studentDTOs) {
+            BulkResultDTO result = new BulkResultDTO();
+            Map<Integer, Student> valid = validateBulk(studentDTOs, true, result);
+            result.getResults().addAll(studentBulkService.updateStudents(valid));
+            return ResponseEntity.ok(summarize(result, studentDTOs.size()));
+        }
+
+        @Operation(summary = "Delete students in bulk", description = "Delete up to 10000 students by id; the response reports the outcome of every item")
+        @ApiResponses(value = {
+                @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+                @ApiResponse(responseCode = "400", description = "Too many items"),
+                @ApiResponse(responseCode = "500", description = "Internal server error")
+        })
+        @DeleteMapping("/bulk")
+        public ResponseEntity<BulkResultDTO> deleteStudents(@RequestBody List<Long> ids) {
+            BulkResultDTO result = new BulkResultDTO();
+            Map<Integer, Long> valid = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (ids.get(i) == null) {
+                    result.getResults().add(new BulkResultDTO.ItemResult(i, null, BulkResultDTO.Status.FAILED, "Id cannot be null"));
+                } else {
+                    valid.put(i, ids.get(i));
+                }
+            }
+            result.getResults().addAll(studentBulkService.deleteStudents(valid));
+            return ResponseEntity.ok(summarize(result, ids.size()));
+        }
+
+        // Bean validation per item, so one bad row fails only itself instead of the whole request
+        private Map<Integer, Student> validateBulk(List<StudentDTO> studentDTOs, boolean requireId, BulkResultDTO result) {
+            if (studentDTOs.size() > StudentBulkService.MAX_BULK_SIZE) {
+                throw new IllegalArgumentException("At most " + StudentBulkService.MAX_BULK_SIZE + " students per request, got " + studentDTOs.size());
+            }
+            Map<Integer, Student> valid = new LinkedHashMap<>();
+            for (int i = 0; i < studentDTOs.size(); i++) {
+                StudentDTO dto = studentDTOs.get(i);
+                String error = dto == null ? "Item cannot be null"
+                        : requireId && dto.getId() == null ? "Id cannot be null"
+                        : validator.validate(dto).stream()
+                                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                                .sorted()
+                                .collect(Collectors.joining(", "));
+                if (!error.isEmpty()) {
+                    result.getResults().add(new BulkResultDTO.ItemResult(i, dto != null ? dto.getId() : null, BulkResultDTO.Status.FAILED, error));
+                    continue;
+                }
+                Student student = convertToStudent(dto);
+                student.setId(dto.getId());
+                if (requireId) {
+                    // Only updates are conditional; a version on a new entity would make it look persisted
+                    student.setVersion(dto.getVersion());
+                }
+                valid.put(i, student);
+            }
+            return valid;
+        }
+
+        private static BulkResultDTO summarize(BulkResultDTO result, int total) {
+            result.getResults().sort(Comparator.comparingInt(BulkResultDTO.ItemResult::getIndex));
+            int failed = (int) result.getResults().stream().filter(item -> item.getStatus() == BulkResultDTO.Status.FAILED).count();
+            result.setTotal(total);
+            result.setFailed(failed);
+            result.setSucceeded(total - failed);
+            return result;
+        }
+
         @Operation(summary = "Upload a profile image for a student", description = "Upload a profile image for a specific student")
         @ApiResponses(value = {
                 @ApiResponse(responseCode = "200", description = "Profile image uploaded successfully"),
@@ -278,7 +419,8 @@ public class StudentController {
         public ResponseEntity<String> uploadProfileImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
             try {
                 String fileName = fileStorageService.storeFile(file);
-                Student student = studentService.getStudentById(id);
+                // getStudentById returns the shared cached instance, so change a copy of it
+                Student student = copyOf(studentService.getStudentById(id));
                 student.setProfileImage(fileName);
                 studentService.updateStudent(id, student);
                 String redirectUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
@@ -292,10 +434,19 @@ public class StudentController {
         }
     }
 
-    private static StudentDTO convertToStudentDTO(Student student) {
-        List<Long> enrollmentIds = student.getEnrollments() != null ?
-                student.getEnrollments().stream().map(Enrollment::getId).collect(Collectors.toList()) : List.of();
-        return new StudentDTO(
+    // Students may come from the cache detached from any session, so enrollment ids are queried rather than lazily loaded
+    private static StudentDTO convertToStudentDTO(Student student, StudentService studentService) {
+        return convertToStudentDTOs(List.of(student), studentService.getEnrollmentIdsByStudent(List.of(student))).get(0);
+    }
+
+    private static List<StudentDTO> convertToStudentDTOs(List<Student> students, Map<Long, List<Long>> enrollmentIdsByStudent) {
+        return students.stream()
+                .map(student -> convertToStudentDTO(student, enrollmentIdsByStudent.getOrDefault(student.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    static StudentDTO convertToStudentDTO(Student student, List<Long> enrollmentIds) {
+        StudentDTO studentDTO = new StudentDTO(
                 student.getId(),
                 student.getName(),
                 student.getSurname(),
@@ -304,6 +455,20 @@ public class StudentController {
                 student.getProfileImage(),
                 enrollmentIds
         );
+        studentDTO.setVersion(student.getVersion());
+        return studentDTO;
+    }
+
+    private static Student copyOf(Student source) {
+        Student student = new Student();
+        student.setId(source.getId());
+        student.setVersion(source.getVersion());
+        student.setName(source.getName());
+        student.setSurname(source.getSurname());
+        student.setEmail(source.getEmail());
+        student.setDepartment(source.getDepartment());
+        student.setProfileImage(source.getProfileImage());
+        return student;
     }
 
     private static Student convertToStudent(StudentDTO studentDTO) {
@@ -0,0 +1,44 @@
+package com.homework.project3.controller;
+
+import com.homework.project3.exception.PreconditionFailedException;
+
+/**
+ * Maps entity versions to ETags for the /api PUT endpoints: GET and PUT responses carry the
+ * version as a strong ETag, and a PUT with If-Match only applies to that version.
+ */
+final class VersionETags {
+
+    private VersionETags() {
+    }
+
+    static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version an update must still find, taken from If-Match or, without the header, from
+     * the request body. Null (no header and no body version, or "If-Match: *") means unconditional.
+     * If-Match uses strong comparison (RFC 9110, 13.1.1), so a weak ETag never matches and the
+     * request fails with 412 instead of being applied.
+     */
+    static Long expectedVersion(String ifMatch, Long bodyVersion) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return bodyVersion;
+        }
+        String value = ifMatch.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            throw new PreconditionFailedException("Weak ETags never match If-Match: " + ifMatch);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+}
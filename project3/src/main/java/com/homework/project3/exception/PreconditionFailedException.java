@@ -0,0 +1,8 @@
+package com.homework.project3.exception;
+
+// A conditional request header that can never match, e.g. a weak ETag in If-Match; answered with 412
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
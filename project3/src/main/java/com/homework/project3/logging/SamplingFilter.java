@@ -0,0 +1,59 @@
+package com.homework.project3.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in every {@code rate} INFO (and lower) events from the configured logger prefixes
+ * and drops the rest, so per-request lines such as "Getting all courses" stay visible as a
+ * sample without costing a write per request. WARN and ERROR always pass, as does everything
+ * from other loggers. Configured in logback-spring.xml:
+ * <pre>
+ * &lt;filter class="com.homework.project3.logging.SamplingFilter"&gt;
+ *     &lt;loggers&gt;com.homework.project3.controller,com.homework.project3.service&lt;/loggers&gt;
+ *     &lt;rate&gt;100&lt;/rate&gt;
+ * &lt;/filter&gt;
+ * </pre>
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private final List<String> prefixes = new ArrayList<>();
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 1;
+
+    public void setLoggers(String loggers) {
+        prefixes.clear();
+        for (String prefix : loggers.split(",")) {
+            if (!prefix.isBlank()) {
+                prefixes.add(prefix.trim());
+            }
+        }
+    }
+
+    public void setRate(int rate) {
+        this.rate = Math.max(rate, 1);
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate == 1 || event.getLevel().isGreaterOrEqual(Level.WARN) || !isSampled(event.getLoggerName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : prefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.homework.project3.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceReportDTO {
+    private LocalDate classDate;
+    private String groupKey;
+    private long enrollmentCount;
+    private long attendedCount;
+    private double attendanceRate;
+    private double cumulativeAttendanceRate;
+}
@@ -0,0 +1,35 @@
+package com.homework.project3.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkResultDTO {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, FAILED
+    }
+
+    // One entry per request item, in request order; index is the item's position in the request array
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Long id;
+        private Status status;
+        private String message;
+    }
+}
@@ -11,18 +11,27 @@ import lombok.AllArgsConstructor;
 import java.util.List;
 
 @Entity
-@Table(name = "courses")
+@Table(name = "courses",
+        uniqueConstraints = @UniqueConstraint(name = Course.NAME_CONSTRAINT, columnNames = "name"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Course {
+    // Named by migration V7; violations are reported as a duplicate course name
+    public static final String NAME_CONSTRAINT = "uk_courses_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courses_seq")
+    @SequenceGenerator(name = "courses_seq", sequenceName = "courses_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "Name cannot be blank")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
     @Min(value = 1, message = "Credit must be at least 1")
@@ -29,5 +29,7 @@ public class CourseDTO {
 
     private List<Long> enrollmentIds;
 
+    private Long version;
+
 
 }
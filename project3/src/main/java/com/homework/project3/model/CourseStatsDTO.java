@@ -0,0 +1,19 @@
+package com.homework.project3.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseStatsDTO {
+    private Long courseId;
+    private String courseName;
+    private String semester;
+    private long enrollmentCount;
+    private double tuitionTotal;
+    private double attendanceRate;
+}
@@ -9,21 +9,34 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "enrollments")
+@Table(name = "enrollments",
+        uniqueConstraints = @UniqueConstraint(name = Enrollment.STUDENT_COURSE_CONSTRAINT, columnNames = {"student_id", "course_id"}),
+        indexes = {
+                @Index(name = "idx_enrollments_course_id", columnList = "course_id"),
+                @Index(name = "idx_enrollments_class_date", columnList = "class_date")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Enrollment {
+    // Created by migration V4; violations are reported as "already enrolled"
+    public static final String STUDENT_COURSE_CONSTRAINT = "uk_enrollments_student_course";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollments_seq")
+    @SequenceGenerator(name = "enrollments_seq", sequenceName = "enrollments_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     private Student student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id", nullable = false)
     private Course course;
 
@@ -18,4 +18,5 @@ public class EnrollmentDTO {
     private LocalDate classDate;
     private double tuition;
     private boolean attendance;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.homework.project3.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportDTO {
+    private String semester;
+    private String groupKey;
+    private long enrollmentCount;
+    private double revenue;
+    private double semesterShare;
+    private int rankInSemester;
+}
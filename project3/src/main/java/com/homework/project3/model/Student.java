@@ -10,16 +10,30 @@ import lombok.AllArgsConstructor;
 import java.util.List;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students",
+        uniqueConstraints = @UniqueConstraint(name = Student.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = {
+        @Index(name = "idx_students_department", columnList = "department"),
+        @Index(name = "idx_students_profile_image", columnList = "profile_image")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Student {
+    // Named by migration V7; violations are reported as "email already exists"
+    public static final String EMAIL_CONSTRAINT = "uk_students_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_seq")
+    @SequenceGenerator(name = "students_seq", sequenceName = "students_seq", allocationSize = 50)
     private Long id;
 
+    // Optimistic lock: Hibernate adds "WHERE version = ?" to every UPDATE and bumps it; API clients see it as the ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "Name cannot be blank")
     @Column(nullable = false)
     private String name;
@@ -30,7 +44,7 @@ public class Student {
 
     @Email(message = "Invalid email format")
     @NotBlank(message = "Email cannot be blank")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @NotBlank(message = "Department cannot be blank")
@@ -15,6 +15,9 @@ import java.util.List;
 public class StudentDTO {
     private Long id;
 
+    // Version the client last saw; checked on update when no If-Match header is sent
+    private Long version;
+
     @NotBlank(message = "Name cannot be blank")
     private String name;
 
@@ -30,6 +33,8 @@ public class StudentDTO {
 
     private transient String profileImage;
 
+    private transient String profileThumbnail;
+
     private transient MultipartFile profileImageFile;
 
     private List<Long> enrollmentIds;
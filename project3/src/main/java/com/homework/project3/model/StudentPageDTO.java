@@ -0,0 +1,19 @@
+package com.homework.project3.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPageDTO {
+    private List<StudentDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.homework.project3.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRequestDTO {
+    @NotBlank
+    private String username;
+    @NotBlank
+    private String password;
+}
@@ -1,5 +1,6 @@
 package com.homework.project3.model;
 
+import com.homework.project3.service.UserCacheEvictionListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,13 +16,15 @@ import java.util.Collections;
 
 @Entity
 @Table(name="users")
+@EntityListeners(UserCacheEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class User implements UserDetails{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique=true, nullable=false)
@@ -33,6 +36,10 @@ public class User implements UserDetails{
     @Column(nullable = false)
     private String role; // "ROLE_USER" or "ROLE_ADMIN"
 
+    // Username as read from the database, so a rename can evict the old cache entry
+    @Transient
+    private String loadedUsername;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority(role));
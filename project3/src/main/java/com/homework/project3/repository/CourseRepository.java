@@ -1,10 +1,44 @@
 package com.homework.project3.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.homework.project3.model.Course;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface CourseRepository  extends JpaRepository<Course, Long>{
     Optional<Course> findByName(String name);
+
+    @Query("SELECT e.course.id AS ownerId, e.id AS enrollmentId FROM Enrollment e " +
+            "WHERE e.course.id IN :courseIds ORDER BY e.id")
+    List<EnrollmentIdProjection> findEnrollmentIdsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT c.id FROM Course c WHERE c.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT c.semester FROM Course c WHERE c.id IN :ids")
+    Set<String> findSemestersByIds(@Param("ids") Collection<Long> ids);
+
+    // enrollment_count, tuition_total and attended_count are not mapped on Course, so entity
+    // saves never overwrite them; they only change through the atomic updates below
+    @Query(value = "SELECT id AS \"courseId\", name AS \"courseName\", semester AS \"semester\", " +
+            "enrollment_count AS \"enrollmentCount\", tuition_total AS \"tuitionTotal\", attended_count AS \"attendedCount\" " +
+            "FROM courses ORDER BY name", nativeQuery = true)
+    List<CourseStatsProjection> findEnrollmentStats();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE courses SET enrollment_count = enrollment_count + :count, " +
+            "tuition_total = tuition_total + :tuition, attended_count = attended_count + :attended " +
+            "WHERE id = :courseId", nativeQuery = true)
+    int adjustEnrollmentStats(@Param("courseId") Long courseId,
+                              @Param("count") long count,
+                              @Param("tuition") double tuition,
+                              @Param("attended") long attended);
 }
@@ -0,0 +1,10 @@
+package com.homework.project3.repository;
+
+public interface CourseStatsProjection {
+    Long getCourseId();
+    String getCourseName();
+    String getSemester();
+    Long getEnrollmentCount();
+    Double getTuitionTotal();
+    Long getAttendedCount();
+}
@@ -0,0 +1,23 @@
+package com.homework.project3.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owner id (student or course) paired with one of its enrollment ids.
+ * Used to build DTO enrollment id lists for a whole page in a single query.
+ */
+public interface EnrollmentIdProjection {
+    Long getOwnerId();
+    Long getEnrollmentId();
+
+    static Map<Long, List<Long>> groupByOwner(List<EnrollmentIdProjection> rows) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        for (EnrollmentIdProjection row : rows) {
+            grouped.computeIfAbsent(row.getOwnerId(), k -> new ArrayList<>()).add(row.getEnrollmentId());
+        }
+        return grouped;
+    }
+}
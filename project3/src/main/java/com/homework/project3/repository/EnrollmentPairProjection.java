@@ -0,0 +1,6 @@
+package com.homework.project3.repository;
+
+public interface EnrollmentPairProjection {
+    Long getStudentId();
+    Long getCourseId();
+}
@@ -1,14 +1,64 @@
 package com.homework.project3.repository;
 
 import com.homework.project3.model.Enrollment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+    // Student and course are lazy; each query fetch-joins only what its callers read
+
+    @Override
+    @EntityGraph(attributePaths = {"student", "course"})
+    List<Enrollment> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"student", "course"})
+    Optional<Enrollment> findById(Long id);
+
+    @EntityGraph(attributePaths = {"course"})
     List<Enrollment> findByStudentId(Long studentId);
+
+    @EntityGraph(attributePaths = {"student"})
     List<Enrollment> findByCourseId(Long courseId);
-    boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
-}
\ No newline at end of file
+
+    // Superset of the requested pairs; callers filter to the exact (student, course) combinations
+    @Query("SELECT e.student.id AS studentId, e.course.id AS courseId FROM Enrollment e " +
+            "WHERE e.student.id IN :studentIds AND e.course.id IN :courseIds")
+    List<EnrollmentPairProjection> findPairs(@Param("studentIds") Collection<Long> studentIds,
+                                             @Param("courseIds") Collection<Long> courseIds);
+
+    @Query("SELECT c.semester AS semester, MIN(e.classDate) AS firstClassDate, MAX(e.classDate) AS lastClassDate " +
+            "FROM Enrollment e JOIN e.course c WHERE e.student.id IN :studentIds GROUP BY c.semester")
+    List<EnrollmentSpanProjection> findSpansByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    @Query("SELECT c.semester AS semester, MIN(e.classDate) AS firstClassDate, MAX(e.classDate) AS lastClassDate " +
+            "FROM Enrollment e JOIN e.course c WHERE c.id = :courseId GROUP BY c.semester")
+    List<EnrollmentSpanProjection> findSpansByCourseId(@Param("courseId") Long courseId);
+
+    // Per-course totals of students' enrollments; binds the id list once, so a chunk can hold up to the 32767 bind parameters PostgreSQL allows
+    @Query("SELECT e.course.id AS courseId, COUNT(e) AS enrollmentCount, SUM(e.tuition) AS tuitionTotal, " +
+            "SUM(CASE WHEN e.attendance = TRUE THEN 1 ELSE 0 END) AS attendedCount " +
+            "FROM Enrollment e WHERE e.student.id IN :studentIds GROUP BY e.course.id")
+    List<EnrollmentTotalsProjection> findTotalsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    // Bulk delete so removing a course does not load its enrollments just to cascade over them
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.course.id = :courseId")
+    int deleteAllByCourseId(@Param("courseId") Long courseId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.student.id IN :studentIds")
+    int deleteAllByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+}
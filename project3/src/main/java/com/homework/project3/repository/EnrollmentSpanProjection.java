@@ -0,0 +1,10 @@
+package com.homework.project3.repository;
+
+import java.time.LocalDate;
+
+// Semester and class date range of a set of enrollments, for targeted analytics cache eviction
+public interface EnrollmentSpanProjection {
+    String getSemester();
+    LocalDate getFirstClassDate();
+    LocalDate getLastClassDate();
+}
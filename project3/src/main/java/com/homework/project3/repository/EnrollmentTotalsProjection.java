@@ -0,0 +1,8 @@
+package com.homework.project3.repository;
+
+public interface EnrollmentTotalsProjection {
+    Long getCourseId();
+    Long getEnrollmentCount();
+    Double getTuitionTotal();
+    Long getAttendedCount();
+}
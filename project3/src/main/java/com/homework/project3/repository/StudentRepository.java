@@ -1,13 +1,37 @@
 package com.homework.project3.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.homework.project3.model.Student;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-    public interface StudentRepository extends JpaRepository<Student, Long> {
+    public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpecificationExecutor<Student> {
         Optional<Student> findByEmail(String email);
+
+        @Query("SELECT e.student.id AS ownerId, e.id AS enrollmentId FROM Enrollment e " +
+                "WHERE e.student.id IN :studentIds ORDER BY e.id")
+        List<EnrollmentIdProjection> findEnrollmentIdsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+        @Query("SELECT s.id FROM Student s WHERE s.id IN :ids")
+        Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+        @Query("SELECT s.id AS id, s.email AS email FROM Student s WHERE s.email IN :emails")
+        List<StudentEmailProjection> findIdsByEmails(@Param("emails") Collection<String> emails);
+
+        // Bulk delete; callers remove the students' enrollments first
+        @Transactional
+        @Modifying
+        @Query("DELETE FROM Student s WHERE s.id IN :ids")
+        int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
 
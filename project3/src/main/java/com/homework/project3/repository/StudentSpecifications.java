@@ -0,0 +1,34 @@
+package com.homework.project3.repository;
+
+import com.homework.project3.model.Student;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+public final class StudentSpecifications {
+
+    private StudentSpecifications() {
+    }
+
+    public static Specification<Student> hasDepartment(String department) {
+        if (department == null || department.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("department"), department.trim());
+    }
+
+    // Matches the prefix against either the name or the surname, case-insensitively
+    public static Specification<Student> nameStartsWith(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String pattern = escapeLike(prefix.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, '\\'),
+                cb.like(cb.lower(root.get("surname")), pattern, '\\'));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
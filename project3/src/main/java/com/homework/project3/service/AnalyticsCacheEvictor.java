@@ -0,0 +1,87 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.repository.EnrollmentSpanProjection;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Drops only the "analytics" entries a write can have changed, instead of the whole cache:
+ * revenue reports of the affected semesters (plus the all-semester ones) and attendance reports
+ * whose date range contains an affected class date. Keys are parsed in the format
+ * AnalyticsService builds them: {@code revenue:<semester>:<group>} and
+ * {@code attendance:<from>:<to>:<group>}. Evictions run after the surrounding transaction
+ * commits, like @CacheEvict around a @Transactional method.
+ */
+@Component
+public class AnalyticsCacheEvictor {
+
+    private static final String REVENUE = "revenue:";
+    private static final String ATTENDANCE = "attendance:";
+    // AnalyticsService puts a null semester (all semesters) into the key as "null"
+    private static final String ALL_SEMESTERS = "null";
+
+    private final CacheManager cacheManager;
+
+    public AnalyticsCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // One enrollment was added, removed or changed in this semester and on this date
+    public void evict(String semester, LocalDate classDate) {
+        evict(Set.of(String.valueOf(semester)), classDate, classDate);
+    }
+
+    public void evict(List<EnrollmentSpanProjection> spans) {
+        for (EnrollmentSpanProjection span : spans) {
+            evict(Set.of(String.valueOf(span.getSemester())), span.getFirstClassDate(), span.getLastClassDate());
+        }
+    }
+
+    // Enrollments in these semesters with class dates within [firstClassDate, lastClassDate] changed
+    public void evict(Collection<String> semesters, LocalDate firstClassDate, LocalDate lastClassDate) {
+        if (semesters.isEmpty()) {
+            return;
+        }
+        removeKeys(key -> {
+            if (key.startsWith(REVENUE)) {
+                String semester = key.substring(REVENUE.length(), key.lastIndexOf(':'));
+                return semester.equals(ALL_SEMESTERS) || semesters.contains(semester);
+            }
+            if (key.startsWith(ATTENDANCE)) {
+                // Enrollments without a class date never show up in attendance reports
+                String[] parts = key.split(":");
+                return firstClassDate != null && lastClassDate != null
+                        && !LocalDate.parse(parts[1]).isAfter(lastClassDate) && !LocalDate.parse(parts[2]).isBefore(firstClassDate);
+            }
+            return true;
+        });
+    }
+
+    // The grouping label of existing enrollments changed (a course renamed, a student's department)
+    public void evictGroup(AnalyticsGroup group) {
+        String suffix = ":" + group.name();
+        removeKeys(key -> key.endsWith(suffix));
+    }
+
+    private void removeKeys(Predicate<String> affected) {
+        TransactionCallbacks.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.ANALYTICS);
+            if (cache == null) {
+                return;
+            }
+            if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                caffeine.asMap().keySet().removeIf(key -> !(key instanceof String name) || affected.test(name));
+            } else {
+                cache.clear();
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.homework.project3.service;
+
+public enum AnalyticsGroup {
+    COURSE("c.name"),
+    DEPARTMENT("s.department");
+
+    private final String column;
+
+    AnalyticsGroup(String column) {
+        this.column = column;
+    }
+
+    // SQL expression the rows are grouped by; fixed per constant, never user input
+    String getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,120 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.model.AttendanceReportDTO;
+import com.homework.project3.model.RevenueReportDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tuition and attendance reports computed in the database. Each report is one GROUP BY query;
+ * shares, ranks and running totals come from window functions over the grouped rows, so no
+ * enrollment is ever loaded into the application. Results are cached in "analytics"; writes
+ * evict only the entries of the semesters and dates they touch (see AnalyticsCacheEvictor,
+ * which parses the cache keys built here).
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AnalyticsService(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Tuition revenue per course or department within each semester, with the group's share of
+     * the semester total and its rank. A null semester reports every semester.
+     */
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, key = "'revenue:' + #semester + ':' + #groupBy")
+    @Transactional(readOnly = true)
+    public List<RevenueReportDTO> getRevenue(String semester, AnalyticsGroup groupBy) {
+        String group = groupBy.getColumn();
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT c.semester AS semester, ").append(group).append(" AS group_key, ")
+                .append("COUNT(*) AS enrollment_count, SUM(e.tuition) AS revenue, ")
+                .append("SUM(SUM(e.tuition)) OVER (PARTITION BY c.semester) AS semester_revenue, ")
+                .append("RANK() OVER (PARTITION BY c.semester ORDER BY SUM(e.tuition) DESC) AS revenue_rank ")
+                .append(fromClause(groupBy));
+        if (semester != null) {
+            sql.append("WHERE c.semester = ? ");
+            args.add(semester);
+        }
+        sql.append("GROUP BY c.semester, ").append(group).append(' ')
+                .append("ORDER BY c.semester, revenue_rank, group_key");
+
+        logger.debug("Computing revenue report for semester {} by {}", semester, groupBy);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            double revenue = rs.getDouble("revenue");
+            double semesterRevenue = rs.getDouble("semester_revenue");
+            return new RevenueReportDTO(
+                    rs.getString("semester"),
+                    rs.getString("group_key"),
+                    rs.getLong("enrollment_count"),
+                    revenue,
+                    semesterRevenue > 0 ? revenue / semesterRevenue : 0.0,
+                    rs.getInt("revenue_rank"));
+        }, args.toArray());
+    }
+
+    /**
+     * Attendance per class date in [from, to], overall or per course/department, with the
+     * running attendance rate from the start of the range up to each date.
+     */
+    @Cacheable(cacheNames = CacheConfig.ANALYTICS, key = "'attendance:' + #from + ':' + #to + ':' + #groupBy")
+    @Transactional(readOnly = true)
+    public List<AttendanceReportDTO> getAttendance(LocalDate from, LocalDate to, AnalyticsGroup groupBy) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range: " + from + " - " + to);
+        }
+        String group = groupBy != null ? groupBy.getColumn() : null;
+        String groupSelect = group != null ? group : "CAST(NULL AS VARCHAR(255))";
+        String partition = group != null ? "PARTITION BY " + group + " " : "";
+        String attended = "SUM(CASE WHEN e.attendance THEN 1 ELSE 0 END)";
+        String sql = "SELECT e.class_date AS class_date, " + groupSelect + " AS group_key, " +
+                "COUNT(*) AS enrollment_count, " + attended + " AS attended_count, " +
+                "SUM(COUNT(*)) OVER (" + partition + "ORDER BY e.class_date) AS running_count, " +
+                "SUM(" + attended + ") OVER (" + partition + "ORDER BY e.class_date) AS running_attended " +
+                fromClause(groupBy) +
+                "WHERE e.class_date BETWEEN ? AND ? " +
+                "GROUP BY e.class_date" + (group != null ? ", " + group : "") + " " +
+                "ORDER BY " + (group != null ? "group_key, " : "") + "e.class_date";
+
+        logger.debug("Computing attendance report for {} - {} by {}", from, to, groupBy);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            long count = rs.getLong("enrollment_count");
+            long attendedCount = rs.getLong("attended_count");
+            long runningCount = rs.getLong("running_count");
+            long runningAttended = rs.getLong("running_attended");
+            return new AttendanceReportDTO(
+                    rs.getDate("class_date").toLocalDate(),
+                    rs.getString("group_key"),
+                    count,
+                    attendedCount,
+                    count > 0 ? (double) attendedCount / count : 0.0,
+                    runningCount > 0 ? (double) runningAttended / runningCount : 0.0);
+        }, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // Students are only joined when grouping by their department
+    private static String fromClause(AnalyticsGroup groupBy) {
+        String from = "FROM enrollments e JOIN courses c ON c.id = e.course_id ";
+        if (groupBy == AnalyticsGroup.DEPARTMENT) {
+            from += "JOIN students s ON s.id = e.student_id ";
+        }
+        return from;
+    }
+}
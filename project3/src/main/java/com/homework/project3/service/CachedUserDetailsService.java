@@ -0,0 +1,79 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Login lookups backed by the "users" cache, so a burst of logins does not run one query per
+ * attempt. The cache holds plain credential records rather than UserDetails: Spring Security
+ * erases the password on the UserDetails it authenticated, which would break a cached instance.
+ * Entries are evicted by {@link UserCacheEvictionListener} whenever a User row changes.
+ */
+@Service
+public class CachedUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedUserDetailsService.class);
+
+    record Credentials(String username, String password, String role) {
+    }
+
+    private final UserRepository userRepository;
+    private final Cache cache;
+
+    public CachedUserDetailsService(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cache = cacheManager.getCache(CacheConfig.USERS);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Atomic load: an eviction of this name waits until the load has finished, so a login that
+        // read the row before a password, role or delete change committed cannot re-cache it after
+        // the change's afterCommit eviction. Unknown names are cached as null too; creating the
+        // user evicts that entry. On Java 21 a miss pins a virtual thread's carrier for one query.
+        Credentials credentials = cache.get(username, () -> load(username));
+        if (credentials == null) {
+            logger.warn("User not found: {}", username);
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        return User.withUsername(credentials.username())
+                .password(credentials.password())
+                .roles(credentials.role())
+                .build();
+    }
+
+    // Called by the authentication provider after a successful login whose stored hash is outdated
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsername(user.getUsername()).ifPresent(entity -> {
+            entity.setPassword(newPassword);
+            userRepository.save(entity);
+            logger.info("Upgraded password encoding for user: {}", user.getUsername());
+        });
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    private Credentials load(String username) {
+        logger.debug("Loading user from database: {}", username);
+        return userRepository.findByUsername(username)
+                .map(user -> {
+                    if (user.getPassword() == null || user.getPassword().trim().isEmpty()) {
+                        logger.error("Password is null or empty for user: {}", user.getUsername());
+                        throw new IllegalStateException("Password cannot be null or empty");
+                    }
+                    String role = user.getRole().startsWith("ROLE_") ? user.getRole().substring(5) : user.getRole();
+                    return new Credentials(user.getUsername(), user.getPassword(), role);
+                })
+                .orElse(null);
+    }
+}
@@ -1,17 +1,32 @@
 package com.homework.project3.service;
 
+import com.homework.project3.config.CacheConfig;
 import com.homework.project3.exception.ResourceNotFoundException;
 import com.homework.project3.model.Course;
+import com.homework.project3.model.CourseStatsDTO;
+import com.homework.project3.model.SearchResultDTO;
 import com.homework.project3.model.Student;
 import com.homework.project3.model.Enrollment;
 import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.CourseStatsProjection;
 import com.homework.project3.repository.StudentRepository;
+import com.homework.project3.repository.EnrollmentIdProjection;
 import com.homework.project3.repository.EnrollmentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,45 +36,107 @@ public class CourseService {
     private final CourseRepository courseRepository;
     private final StudentRepository studentRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final SearchIndexService searchIndexService;
+    private final AnalyticsCacheEvictor analyticsCacheEvictor;
 
-    public CourseService(CourseRepository courseRepository, StudentRepository studentRepository, EnrollmentRepository enrollmentRepository) {
+    public CourseService(CourseRepository courseRepository, StudentRepository studentRepository, EnrollmentRepository enrollmentRepository, SearchIndexService searchIndexService,
+                         AnalyticsCacheEvictor analyticsCacheEvictor) {
         this.courseRepository = courseRepository;
         this.studentRepository = studentRepository;
         this.enrollmentRepository = enrollmentRepository;
+        this.analyticsCacheEvictor = analyticsCacheEvictor;
+        this.searchIndexService = searchIndexService;
     }
 
+    @Cacheable(cacheNames = CacheConfig.COURSE_LIST)
+    @Transactional(readOnly = true)
     public List<Course> getAllCourses() {
         return courseRepository.findAll();
     }
 
+    // Loads enrollment ids for all given courses in one query instead of touching each lazy collection
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> getEnrollmentIdsByCourse(Collection<Course> courses) {
+        List<Long> courseIds = courses.stream().map(Course::getId).collect(Collectors.toList());
+        if (courseIds.isEmpty()) {
+            return Map.of();
+        }
+        return EnrollmentIdProjection.groupByOwner(courseRepository.findEnrollmentIdsByCourseIds(courseIds));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.COURSES, key = "#id")
+    @Transactional(readOnly = true)
     public Course getCourseById(Long id) {
         return courseRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Course not found"));
     }
 
+    public List<SearchResultDTO> searchCourses(String query, Integer limit) {
+        return searchIndexService.searchCourses(query, limit);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.COURSES_BY_NAME, key = "#name")
+    @Transactional(readOnly = true)
+    public Course getCourseByName(String name) {
+        return courseRepository.findByName(name).orElseThrow(() -> new ResourceNotFoundException("Course not found with name: " + name));
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true)
+    @Transactional
     public Course addCourse(Course course) {
-        courseRepository.findByName(course.getName()).ifPresent(c -> {
-            throw new IllegalArgumentException("There is already a course with this name: " + course.getName());
-        });
-        return courseRepository.save(course);
+        Course savedCourse;
+        try {
+            savedCourse = courseRepository.saveAndFlush(course);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.COURSE_NAME.isViolatedBy(e)) {
+                throw new IllegalArgumentException("There is already a course with this name: " + course.getName());
+            }
+            throw e;
+        }
+        searchIndexService.indexCourse(savedCourse);
+        return savedCourse;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSES_BY_NAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true)
+    })
+    @Transactional
     public Course updateCourse(Long id, Course newCourseData) {
         try {
             logger.info("Updating course with ID: {}", id);
             Course course = getCourseById(id);
+            OptimisticLocks.checkVersion(newCourseData.getVersion(), course.getVersion(), Course.class, id);
+            // Revenue is reported per semester and both reports can group by course name
+            if (!Objects.equals(course.getSemester(), newCourseData.getSemester())) {
+                analyticsCacheEvictor.evict(Arrays.asList(course.getSemester(), newCourseData.getSemester()), null, null);
+            }
+            if (!Objects.equals(course.getName(), newCourseData.getName())) {
+                analyticsCacheEvictor.evictGroup(AnalyticsGroup.COURSE);
+            }
             course.setName(newCourseData.getName());
             course.setCredit(newCourseData.getCredit());
             course.setDescription(newCourseData.getDescription());
             course.setSemester(newCourseData.getSemester());
             Course updatedCourse = courseRepository.save(course);
-            logger.info("Course updated successfully: {}", updatedCourse);
+            searchIndexService.indexCourse(updatedCourse);
+            logger.info("Course updated successfully, ID: {}", updatedCourse.getId());
             return updatedCourse;
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Course with ID {} was changed concurrently: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error updating course with ID {}: {}", id, e.getMessage(), e);
             throw new RuntimeException("Error updating course: " + e.getMessage(), e);
         }
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.COURSES_BY_NAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true)
+    })
+    @Transactional
     public int deleteCourse(Long id) {
         logger.info("Attempting to delete course with ID: {}", id);
         Course course = courseRepository.findById(id)
@@ -68,22 +145,45 @@ public class CourseService {
                     return new ResourceNotFoundException("No course found with ID: " + id);
                 });
 
-        int enrollmentCount = course.getEnrollments() != null ? course.getEnrollments().size() : 0;
-        logger.info("Course with ID: {} has {} enrollment records that will be deleted", id, enrollmentCount);
+        analyticsCacheEvictor.evict(enrollmentRepository.findSpansByCourseId(id));
+        int enrollmentCount = enrollmentRepository.deleteAllByCourseId(id);
+        logger.info("Deleted {} enrollment records of course with ID: {}", enrollmentCount, id);
 
         courseRepository.delete(course);
+        searchIndexService.removeCourse(id);
         logger.info("Successfully deleted course with ID: {} and {} enrollment records", id, enrollmentCount);
         return enrollmentCount;
     }
 
+    // Reads the maintained counters, one row per course, instead of aggregating enrollments
+    @Transactional(readOnly = true)
+    public List<CourseStatsDTO> getCourseStats() {
+        return courseRepository.findEnrollmentStats().stream()
+                .map(stats -> new CourseStatsDTO(
+                        stats.getCourseId(),
+                        stats.getCourseName(),
+                        stats.getSemester(),
+                        stats.getEnrollmentCount(),
+                        stats.getTuitionTotal(),
+                        stats.getEnrollmentCount() > 0 ? (double) stats.getAttendedCount() / stats.getEnrollmentCount() : 0.0))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getEnrollmentCounts() {
+        return courseRepository.findEnrollmentStats().stream()
+                .collect(Collectors.toMap(CourseStatsProjection::getCourseId, CourseStatsProjection::getEnrollmentCount));
+    }
+
+    @Transactional(readOnly = true)
     public List<Student> getStudentsInCourse(Long courseId) {
-        logger.info("Fetching students for course ID: {}", courseId);
+        logger.debug("Fetching students for course ID: {}", courseId);
         List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
         List<Student> students = enrollments.stream()
                 .filter(enrollment -> enrollment.getStudent() != null)
                 .map(Enrollment::getStudent)
                 .collect(Collectors.toList());
-        logger.info("Found {} students for course ID: {}", students.size(), courseId);
+        logger.debug("Found {} students for course ID: {}", students.size(), courseId);
         return students;
     }
 }
\ No newline at end of file
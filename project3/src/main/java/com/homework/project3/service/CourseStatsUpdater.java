@@ -0,0 +1,100 @@
+package com.homework.project3.service;
+
+import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.EnrollmentTotalsProjection;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects changes to the per-course enrollment counters and writes them as the last statements
+ * of the transaction, right before commit. Every registration for a course updates that course's
+ * row, so its lock is what concurrent registrations queue on; taking it last means it is held
+ * for the commit only, not for the rest of the request. Deltas for the same course are merged,
+ * and courses are updated in id order so two transactions cannot deadlock on each other's rows.
+ * Without an active transaction the update is applied immediately.
+ */
+@Component
+public class CourseStatsUpdater {
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+
+    public CourseStatsUpdater(CourseRepository courseRepository, EnrollmentRepository enrollmentRepository) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+    }
+
+    /**
+     * Takes students' enrollments out of the counters; call before the enrollments are deleted.
+     * Reads the per-course totals with one query and applies them like any other delta.
+     */
+    public void subtractStudentEnrollments(Collection<Long> studentIds) {
+        for (EnrollmentTotalsProjection totals : enrollmentRepository.findTotalsByStudentIds(studentIds)) {
+            add(totals.getCourseId(), -totals.getEnrollmentCount(), -totals.getTuitionTotal(), -totals.getAttendedCount());
+        }
+    }
+
+    public void add(Long courseId, long count, double tuition, long attended) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            courseRepository.adjustEnrollmentStats(courseId, count, tuition, attended);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Delta> pending = (Map<Long, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new ApplyBeforeCommit(pending));
+        }
+        Delta delta = pending.computeIfAbsent(courseId, id -> new Delta());
+        delta.count += count;
+        delta.tuition += tuition;
+        delta.attended += attended;
+    }
+
+    private static final class Delta {
+        private long count;
+        private double tuition;
+        private long attended;
+
+        private boolean isEmpty() {
+            return count == 0 && tuition == 0 && attended == 0;
+        }
+    }
+
+    private final class ApplyBeforeCommit implements TransactionSynchronization {
+
+        private final Map<Long, Delta> pending;
+
+        private ApplyBeforeCommit(Map<Long, Delta> pending) {
+            this.pending = pending;
+        }
+
+        // After the other synchronizations' beforeCommit work, so nothing runs between the UPDATEs and the commit
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            pending.forEach((courseId, delta) -> {
+                if (!delta.isEmpty()) {
+                    courseRepository.adjustEnrollmentStats(courseId, delta.count, delta.tuition, delta.attended);
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CourseStatsUpdater.this);
+        }
+    }
+}
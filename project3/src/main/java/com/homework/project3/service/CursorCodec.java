@@ -0,0 +1,75 @@
+package com.homework.project3.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes keyset scroll positions as opaque, URL-safe cursor tokens.
+ * The token carries the sort key values of the last row of a page, so
+ * the next page is a plain index seek no matter how deep the client is.
+ */
+public final class CursorCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private CursorCodec() {
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return null;
+        }
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(keyset.getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    public static String nextCursor(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        return encode(window.positionAt(window.size() - 1));
+    }
+
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            keys = MAPPER.readValue(new String(json, StandardCharsets.UTF_8), KEYS_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        Map<String, Object> typedKeys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (!keys.containsKey(property)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            Object value = keys.get(property);
+            // JSON numbers come back as Integer/Long depending on magnitude; ids are always Long
+            typedKeys.put(property, value instanceof Number number ? Long.valueOf(number.longValue()) : value);
+        }
+        if (typedKeys.size() != keys.size()) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        return ScrollPosition.forward(typedKeys);
+    }
+}
@@ -0,0 +1,290 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.model.Course;
+import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.ImportResultDTO;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV file of enrollments into the database in fixed-size chunks.
+ * Expected columns: studentId,courseId,classDate,tuition,attendance (header optional).
+ * Each chunk validates students and courses with one IN query each, drops pairs that
+ * already exist (in the database or earlier in the file) and is written inside its own
+ * transaction. Ids come from the pooled enrollments_seq, so Hibernate sends the inserts
+ * as JDBC batches of hibernate.jdbc.batch_size rows. The per-course counters on courses
+ * are advanced in the same transaction, as its last statements. If the database still rejects a chunk (a concurrent
+ * enrollment of the same pair, or a student deleted meanwhile), the chunk is retried row by
+ * row so only the offending lines are reported and the rest is imported.
+ */
+@Service
+public class EnrollmentImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    // entityManager.flush() throws native Hibernate exceptions; this maps them like a repository would
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final CourseStatsUpdater courseStatsUpdater;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CacheManager cacheManager;
+    private final AnalyticsCacheEvictor analyticsCacheEvictor;
+    private final int chunkSize;
+
+    public EnrollmentImportService(EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   StudentRepository studentRepository,
+                                   CourseRepository courseRepository,
+                                   CourseStatsUpdater courseStatsUpdater,
+                                   EnrollmentRepository enrollmentRepository,
+                                   CacheManager cacheManager,
+                                   AnalyticsCacheEvictor analyticsCacheEvictor,
+                                   @Value("${enrollment.import.chunk-size:1000}") int chunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.studentRepository = studentRepository;
+        this.courseRepository = courseRepository;
+        this.courseStatsUpdater = courseStatsUpdater;
+        this.enrollmentRepository = enrollmentRepository;
+        this.cacheManager = cacheManager;
+        this.analyticsCacheEvictor = analyticsCacheEvictor;
+        this.chunkSize = chunkSize;
+    }
+
+    private record Row(long line, long studentId, long courseId, LocalDate classDate, double tuition, boolean attendance) {
+        String pairKey() {
+            return studentId + ":" + courseId;
+        }
+    }
+
+    // Courses and class date range of the imported rows, to evict only the reports they can change
+    private static final class ImportedSpan {
+        private final Set<Long> courseIds = new HashSet<>();
+        private LocalDate firstClassDate;
+        private LocalDate lastClassDate;
+
+        void add(Row row) {
+            courseIds.add(row.courseId());
+            if (firstClassDate == null || row.classDate().isBefore(firstClassDate)) {
+                firstClassDate = row.classDate();
+            }
+            if (lastClassDate == null || row.classDate().isAfter(lastClassDate)) {
+                lastClassDate = row.classDate();
+            }
+        }
+    }
+
+    public ImportResultDTO importCsv(InputStream input) throws IOException {
+        ImportResultDTO result = new ImportResultDTO();
+        Set<String> seenPairs = new HashSet<>();
+        ImportedSpan imported = new ImportedSpan();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                result.setTotalRows(result.getTotalRows() + 1);
+                try {
+                    chunk.add(parse(lineNumber, line));
+                } catch (IllegalArgumentException e) {
+                    reportError(result, lineNumber, e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, seenPairs, imported, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, seenPairs, imported, result);
+            }
+        } finally {
+            // Chunks commit independently, so reports must be dropped even if the import stops halfway
+            if (result.getImported() > 0) {
+                evictAnalytics(imported);
+            }
+        }
+        logger.info("Enrollment import finished: {} rows, {} imported, {} failed",
+                result.getTotalRows(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void evictAnalytics(ImportedSpan imported) {
+        try {
+            analyticsCacheEvictor.evict(courseRepository.findSemestersByIds(imported.courseIds),
+                    imported.firstClassDate, imported.lastClassDate);
+        } catch (RuntimeException e) {
+            // Without the semesters, drop every report rather than leave stale ones behind
+            logger.warn("Could not look up imported semesters, clearing all analytics: {}", e.getMessage());
+            Cache analytics = cacheManager.getCache(CacheConfig.ANALYTICS);
+            if (analytics != null) {
+                analytics.clear();
+            }
+        }
+    }
+
+    private void writeChunk(List<Row> chunk, Set<String> seenPairs, ImportedSpan imported, ImportResultDTO result) {
+        Set<Long> studentIds = chunk.stream().map(Row::studentId).collect(Collectors.toSet());
+        Set<Long> courseIds = chunk.stream().map(Row::courseId).collect(Collectors.toSet());
+        Set<Long> existingStudents = studentRepository.findExistingIds(studentIds);
+        Set<Long> existingCourses = courseRepository.findExistingIds(courseIds);
+        Set<String> existingPairs = enrollmentRepository.findPairs(studentIds, courseIds).stream()
+                .map(pair -> pair.getStudentId() + ":" + pair.getCourseId())
+                .collect(Collectors.toSet());
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        Set<String> chunkPairs = new HashSet<>();
+        for (Row row : chunk) {
+            if (!existingStudents.contains(row.studentId())) {
+                reportError(result, row.line(), "Student not found: " + row.studentId());
+            } else if (!existingCourses.contains(row.courseId())) {
+                reportError(result, row.line(), "Course not found: " + row.courseId());
+            } else if (existingPairs.contains(row.pairKey()) || seenPairs.contains(row.pairKey()) || !chunkPairs.add(row.pairKey())) {
+                reportError(result, row.line(), "Student " + row.studentId() + " is already enrolled in course " + row.courseId());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        List<Row> written;
+        try {
+            insert(valid);
+            written = valid;
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Chunk of {} enrollments rejected ({}), retrying row by row", valid.size(), e.getMostSpecificCause().getMessage());
+            written = new ArrayList<>(valid.size());
+            for (Row row : valid) {
+                try {
+                    insert(List.of(row));
+                    written.add(row);
+                } catch (DataIntegrityViolationException rowError) {
+                    reportError(result, row.line(), UniqueConstraints.ENROLLMENT_STUDENT_COURSE.isViolatedBy(rowError)
+                            ? "Student " + row.studentId() + " is already enrolled in course " + row.courseId()
+                            : "Rejected by the database: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        // Only committed rows count as seen; a rolled-back pair may legitimately appear again later
+        written.forEach(row -> {
+            seenPairs.add(row.pairKey());
+            imported.add(row);
+        });
+        result.setImported(result.getImported() + written.size());
+        logger.debug("Imported chunk of {} enrollments", written.size());
+    }
+
+    private void insert(List<Row> rows) {
+        Map<Long, double[]> statsByCourse = new HashMap<>();
+        for (Row row : rows) {
+            double[] stats = statsByCourse.computeIfAbsent(row.courseId(), id -> new double[3]);
+            stats[0]++;
+            stats[1] += row.tuition();
+            stats[2] += row.attendance() ? 1 : 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeRows(rows, statsByCourse));
+        } catch (RuntimeException e) {
+            DataAccessException translated = JPA_DIALECT.translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private void writeRows(List<Row> rows, Map<Long, double[]> statsByCourse) {
+        for (Row row : rows) {
+            Enrollment enrollment = new Enrollment();
+            // References are existence-checked above, so no select is needed to attach them
+            enrollment.setStudent(entityManager.getReference(Student.class, row.studentId()));
+            enrollment.setCourse(entityManager.getReference(Course.class, row.courseId()));
+            enrollment.setClassDate(row.classDate());
+            enrollment.setTuition(row.tuition());
+            enrollment.setAttendance(row.attendance());
+            entityManager.persist(enrollment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // One counter update per course in the chunk rather than one per row, applied right before commit
+        statsByCourse.forEach((courseId, stats) ->
+                courseStatsUpdater.add(courseId, (long) stats[0], stats[1], (long) stats[2]));
+    }
+
+    private static boolean isHeader(String line) {
+        return line.toLowerCase(Locale.ROOT).startsWith("studentid");
+    }
+
+    private static Row parse(long lineNumber, String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 5) {
+            throw new IllegalArgumentException("Expected 5 columns but found " + columns.length);
+        }
+        try {
+            long studentId = Long.parseLong(columns[0].trim());
+            long courseId = Long.parseLong(columns[1].trim());
+            LocalDate classDate = LocalDate.parse(columns[2].trim());
+            double tuition = Double.parseDouble(columns[3].trim());
+            if (tuition < 0) {
+                throw new IllegalArgumentException("Tuition cannot be negative");
+            }
+            return new Row(lineNumber, studentId, courseId, classDate, tuition, parseBoolean(columns[4].trim()));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid value: " + e.getMessage());
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no", "" -> false;
+            default -> throw new IllegalArgumentException("Invalid attendance value: " + value);
+        };
+    }
+
+    private static void reportError(ImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportResultDTO.RowError(line, message));
+        }
+    }
+}
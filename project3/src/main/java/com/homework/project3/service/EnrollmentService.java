@@ -7,7 +7,9 @@ import com.homework.project3.model.Course;
 import com.homework.project3.repository.EnrollmentRepository;
 import com.homework.project3.repository.StudentRepository;
 import com.homework.project3.repository.CourseRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -17,32 +19,36 @@ public class EnrollmentService {
     private final EnrollmentRepository enrollmentRepository;
     private final StudentRepository studentRepository;
     private final CourseRepository courseRepository;
+    private final CourseStatsUpdater courseStatsUpdater;
+    private final AnalyticsCacheEvictor analyticsCacheEvictor;
 
-    public EnrollmentService(EnrollmentRepository enrollmentRepository, StudentRepository studentRepository, CourseRepository courseRepository) {
+    public EnrollmentService(EnrollmentRepository enrollmentRepository, StudentRepository studentRepository, CourseRepository courseRepository,
+                             CourseStatsUpdater courseStatsUpdater, AnalyticsCacheEvictor analyticsCacheEvictor) {
         this.enrollmentRepository = enrollmentRepository;
         this.studentRepository = studentRepository;
         this.courseRepository = courseRepository;
+        this.courseStatsUpdater = courseStatsUpdater;
+        this.analyticsCacheEvictor = analyticsCacheEvictor;
     }
 
+    @Transactional(readOnly = true)
     public List<Enrollment> getAllEnrollments() {
         return enrollmentRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Enrollment getEnrollmentById(Long id) {
         return enrollmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ID ile kayıt bulunamadı: " + id));
     }
 
+    @Transactional
     public Enrollment createEnrollment(Long courseId, Long studentId, Enrollment enrollmentDetails) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("ID ile kurs bulunamadı: " + courseId));
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("ID ile öğrenci bulunamadı: " + studentId));
 
-        if (enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
-            throw new IllegalArgumentException("Öğrenci zaten bu derse kayıtlı: " + studentId);
-        }
-
         Enrollment enrollment = new Enrollment();
         enrollment.setStudent(student);
         enrollment.setCourse(course);
@@ -50,12 +56,26 @@ public class EnrollmentService {
         enrollment.setTuition(enrollmentDetails.getTuition());
         enrollment.setAttendance(enrollmentDetails.isAttendance());
 
-        return enrollmentRepository.save(enrollment);
+        // The unique (student_id, course_id) constraint rejects duplicates, also under concurrent requests
+        Enrollment savedEnrollment;
+        try {
+            savedEnrollment = enrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.ENROLLMENT_STUDENT_COURSE.isViolatedBy(e)) {
+                throw new IllegalArgumentException("Öğrenci zaten bu derse kayıtlı: " + studentId);
+            }
+            throw e;
+        }
+        addToCourseStats(savedEnrollment, 1);
+        analyticsCacheEvictor.evict(course.getSemester(), savedEnrollment.getClassDate());
+        return savedEnrollment;
     }
 
+    @Transactional
     public Enrollment updateEnrollment(Long id, Enrollment updatedEnrollment) {
         Enrollment enrollment = enrollmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ID ile kayıt bulunamadı: " + id));
+        OptimisticLocks.checkVersion(updatedEnrollment.getVersion(), enrollment.getVersion(), Enrollment.class, id);
 
         if (updatedEnrollment.getStudent() == null) {
             throw new IllegalArgumentException("Student cannot be null");
@@ -69,18 +89,35 @@ public class EnrollmentService {
         Course course = courseRepository.findById(updatedEnrollment.getCourse().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("ID ile kurs bulunamadı: " + updatedEnrollment.getCourse().getId()));
 
+        addToCourseStats(enrollment, -1);
+        analyticsCacheEvictor.evict(enrollment.getCourse().getSemester(), enrollment.getClassDate());
         enrollment.setStudent(student);
         enrollment.setCourse(course);
         enrollment.setClassDate(updatedEnrollment.getClassDate());
         enrollment.setTuition(updatedEnrollment.getTuition());
         enrollment.setAttendance(updatedEnrollment.isAttendance());
 
-        return enrollmentRepository.save(enrollment);
+        Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        addToCourseStats(savedEnrollment, 1);
+        analyticsCacheEvictor.evict(course.getSemester(), savedEnrollment.getClassDate());
+        return savedEnrollment;
     }
 
+    @Transactional
     public void deleteEnrollment(Long id) {
         Enrollment enrollment = enrollmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ID ile kayıt bulunamadı: " + id));
         enrollmentRepository.delete(enrollment);
+        addToCourseStats(enrollment, -1);
+        analyticsCacheEvictor.evict(enrollment.getCourse().getSemester(), enrollment.getClassDate());
+    }
+
+    // Keeps the per-course aggregates on courses in step with the enrollment rows; sign is +1 or -1.
+    // Written just before commit, see CourseStatsUpdater
+    private void addToCourseStats(Enrollment enrollment, int sign) {
+        courseStatsUpdater.add(enrollment.getCourse().getId(),
+                sign,
+                sign * enrollment.getTuition(),
+                enrollment.isAttendance() ? sign : 0);
     }
 }
\ No newline at end of file
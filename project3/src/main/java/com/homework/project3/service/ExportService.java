@@ -0,0 +1,200 @@
+package com.homework.project3.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes whole tables to an output stream row by row. Rows are read through a
+ * forward-only JDBC cursor (fetch size bounded, inside a read-only transaction so
+ * PostgreSQL actually uses a cursor) and written straight to the response, so heap
+ * use does not grow with the number of rows.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String STUDENTS_SQL =
+            "SELECT id, name, surname, email, department, profile_image FROM students ORDER BY id";
+    private static final List<String> STUDENT_COLUMNS =
+            List.of("id", "name", "surname", "email", "department", "profileImage");
+
+    private static final String COURSES_SQL =
+            "SELECT id, name, credit, description, semester FROM courses ORDER BY id";
+    private static final List<String> COURSE_COLUMNS =
+            List.of("id", "name", "credit", "description", "semester");
+
+    private static final String ENROLLMENTS_SQL =
+            "SELECT id, student_id, course_id, class_date, tuition, attendance FROM enrollments ORDER BY id";
+    private static final List<String> ENROLLMENT_COLUMNS =
+            List.of("id", "studentId", "courseId", "classDate", "tuition", "attendance");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportStudents(ExportFormat format, OutputStream out) throws IOException {
+        export("students", STUDENTS_SQL, STUDENT_COLUMNS, format, out);
+    }
+
+    public void exportCourses(ExportFormat format, OutputStream out) throws IOException {
+        export("courses", COURSES_SQL, COURSE_COLUMNS, format, out);
+    }
+
+    public void exportEnrollments(ExportFormat format, OutputStream out) throws IOException {
+        export("enrollments", ENROLLMENTS_SQL, ENROLLMENT_COLUMNS, format, out);
+    }
+
+    private void export(String table, String sql, List<String> columns, ExportFormat format, OutputStream out) throws IOException {
+        logger.info("Exporting {} as {}", table, format);
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out, columns) : new NdjsonRowWriter(out, columns);
+        try {
+            writer.start();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} rows from {}", writer.rows, table);
+    }
+
+    private static Object readValue(ResultSet rs, int index) throws SQLException {
+        Object value = rs.getObject(index);
+        return value instanceof Date date ? date.toLocalDate() : value;
+    }
+
+    private abstract static class RowWriter {
+        protected final List<String> columns;
+        protected long rows;
+
+        RowWriter(List<String> columns) {
+            this.columns = columns;
+        }
+
+        abstract void start() throws IOException;
+
+        abstract void write(ResultSet rs) throws IOException, SQLException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out, List<String> columns) throws IOException {
+            super(columns);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        void start() {
+        }
+
+        @Override
+        void write(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(readValue(rs, i + 1));
+            }
+            generator.writeEndObject();
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                generator.flush();
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out, List<String> columns) {
+            super(columns);
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        void start() throws IOException {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        @Override
+        void write(ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = readValue(rs, i + 1);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('\n');
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
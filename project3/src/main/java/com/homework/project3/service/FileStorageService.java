@@ -1,39 +1,319 @@
 package com.homework.project3.service;
 
+import com.homework.project3.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+/**
+ * Content-addressed upload store. A file is keyed by the SHA-256 of its bytes and kept under
+ * two levels of hash-prefix directories ({@code ab/cd/abcd...ef.jpg}), so identical uploads share
+ * one blob and no directory grows past a few hundred entries. The key is what students store in
+ * {@code profile_image}. Every key has a stored_files row whose ref_count is changed by
+ * {@link #retain} and {@link #release} in the same transaction as the student row; blobs are
+ * only deleted by {@link #sweepOrphans}, once unreferenced and older than the grace period.
+ * Flat names from before the migration (see {@link LegacyUploadMigration}) are still served.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    private static final String THUMBNAIL_PREFIX = "thumb_";
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+
     private final Path fileStorageLocation;
+    private final Path tempLocation;
+    private final ThumbnailService thumbnailService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration orphanAge;
 
-    public FileStorageService() {
+    public FileStorageService(ThumbnailService thumbnailService,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${storage.orphan-age:24h}") Duration orphanAge) {
+        this.thumbnailService = thumbnailService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orphanAge = orphanAge;
         this.fileStorageLocation = Paths.get("uploads").toAbsolutePath().normalize();
+        this.tempLocation = this.fileStorageLocation.resolve(TEMP_DIRECTORY);
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.tempLocation);
         } catch (IOException e) {
             throw new RuntimeException("Could not create the directory for file uploads", e);
         }
     }
 
     public String storeFile(MultipartFile file) throws IOException {
-        String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Path targetLocation = this.fileStorageLocation.resolve(fileName);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-        return fileName;
+        try (InputStream input = file.getInputStream()) {
+            return store(input, file.getOriginalFilename());
+        }
+    }
+
+    /**
+     * Streams the content to a temp file while hashing it, then moves it to its content key.
+     * If a blob with the same key already exists the temp copy is dropped instead. Either way
+     * the key's stored_at is refreshed first, so the sweep leaves it alone for the grace period
+     * the caller has to attach it to a student.
+     */
+    String store(InputStream input, String originalFilename) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(this.tempLocation, "upload_", ".part");
+        try {
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(input, digest));
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                long transferred;
+                while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String key = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extensionOf(originalFilename);
+            Path targetLocation = resolve(key);
+            // Before the existence check: a sweep deleting this key holds its row lock until the
+            // blob is gone, so afterwards we either see the file or recreate it
+            touch(key);
+            if (Files.exists(targetLocation)) {
+                logger.debug("Upload deduplicated to existing blob {}", key);
+                return key;
+            }
+            Files.createDirectories(targetLocation.getParent());
+            Files.move(temp, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            thumbnailService.generate(targetLocation, resolve(thumbnailName(key)));
+            return key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Thumbnail file name for list views, or the original when no thumbnail has been generated (yet)
+    public String resolveThumbnail(String fileName) {
+        if (fileName == null || fileName.isEmpty()) {
+            return fileName;
+        }
+        String thumbnail = thumbnailName(fileName);
+        return Files.exists(resolve(thumbnail)) ? thumbnail : fileName;
+    }
+
+    // Absolute path of a stored file for serving, 404 when it does not exist
+    public Path getFilePath(String fileName) {
+        Path path = resolve(fileName);
+        if (!Files.isRegularFile(path) || path.startsWith(this.tempLocation)) {
+            throw new ResourceNotFoundException("File not found: " + fileName);
+        }
+        return path;
+    }
+
+    /**
+     * Counts a student reference to the given file. Call inside the transaction that writes the
+     * student row, so the count commits or rolls back together with it.
+     */
+    public void retain(String fileName) {
+        if (fileName == null || fileName.isEmpty()) {
+            return;
+        }
+        String increment = "UPDATE stored_files SET ref_count = ref_count + 1 WHERE file_key = ?";
+        if (jdbcTemplate.update(increment, fileName) == 0) {
+            // Not stored through store() (or swept since): create the row. No DuplicateKeyException
+            // handling here, since on PostgreSQL a failed INSERT would abort the caller's transaction
+            int inserted = jdbcTemplate.update("INSERT INTO stored_files (file_key, ref_count, stored_at) " +
+                            "SELECT ?, 1, ? WHERE NOT EXISTS (SELECT 1 FROM stored_files WHERE file_key = ?)",
+                    fileName, Timestamp.from(Instant.now()), fileName);
+            if (inserted == 0) {
+                jdbcTemplate.update(increment, fileName);
+            }
+        }
+    }
+
+    /**
+     * Drops a student reference to the given file, in the transaction that changes or deletes
+     * the student row. The blob stays on disk until the sweep finds it unreferenced.
+     */
+    public void release(String fileName) {
+        if (fileName == null || fileName.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE stored_files SET ref_count = ref_count - 1 WHERE file_key = ? AND ref_count > 0", fileName);
+    }
+
+    /**
+     * Deletes blobs (and thumbnails) that no student references and that were last stored more
+     * than storage.orphan-age ago: released images as well as uploads that were never attached.
+     * Each row is deleted in its own transaction that also removes the file, so a concurrent
+     * {@link #retain} or {@link #store} of the same key either wins the row or waits and recreates it.
+     * Files on disk without a row (older orphans, interrupted uploads) are registered first.
+     */
+    @Scheduled(fixedDelayString = "${storage.orphan-sweep-interval:1h}", initialDelayString = "${storage.orphan-sweep-interval:1h}")
+    public void sweepOrphans() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(orphanAge));
+        try {
+            registerUntrackedFiles(cutoff.toInstant());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to scan the upload directory: {}", e.getMessage());
+        }
+        List<String> candidates = jdbcTemplate.queryForList(
+                "SELECT file_key FROM stored_files WHERE ref_count = 0 AND stored_at < ?", String.class, cutoff);
+        int deleted = 0;
+        for (String key : candidates) {
+            try {
+                Boolean removed = transactionTemplate.execute(status -> {
+                    if (jdbcTemplate.update("DELETE FROM stored_files WHERE file_key = ? AND ref_count = 0 AND stored_at < ?", key, cutoff) == 0) {
+                        return false;
+                    }
+                    try {
+                        Files.deleteIfExists(resolve(key));
+                        Files.deleteIfExists(resolve(thumbnailName(key)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return true;
+                });
+                if (Boolean.TRUE.equals(removed)) {
+                    deleted++;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to delete orphaned file {}: {}", key, e.getMessage());
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} orphaned uploads", deleted);
+        }
     }
 
-    public void deleteFile(String fileName) throws IOException {
-        if (fileName != null && !fileName.isEmpty()) {
-            Path filePath = this.fileStorageLocation.resolve(fileName);
-            Files.deleteIfExists(filePath);
+    // Gives files the table does not know about a zero-count row dated by their mtime, and drops stale temp files
+    private void registerUntrackedFiles(Instant cutoff) throws IOException {
+        try (Stream<Path> files = Files.walk(this.fileStorageLocation)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                Instant modified = Files.getLastModifiedTime(file).toInstant();
+                if (file.startsWith(this.tempLocation)) {
+                    if (modified.isBefore(cutoff)) {
+                        Files.deleteIfExists(file);
+                    }
+                    continue;
+                }
+                if (file.getFileName().toString().startsWith(THUMBNAIL_PREFIX)) {
+                    continue;
+                }
+                String key = this.fileStorageLocation.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                if (modified.isBefore(cutoff) && !isTracked(key)) {
+                    try {
+                        jdbcTemplate.update("INSERT INTO stored_files (file_key, ref_count, stored_at) VALUES (?, 0, ?)",
+                                key, Timestamp.from(modified));
+                    } catch (DuplicateKeyException e) {
+                        // Stored or retained concurrently; that row wins
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isTracked(String key) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM stored_files WHERE file_key = ?", Integer.class, key).isEmpty();
+    }
+
+    // Runs outside any transaction (uploads are stored before the student is written), so a lost INSERT race is harmless
+    private void touch(String key) {
+        Timestamp now = Timestamp.from(Instant.now());
+        String update = "UPDATE stored_files SET stored_at = ? WHERE file_key = ?";
+        if (jdbcTemplate.update(update, now, key) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO stored_files (file_key, ref_count, stored_at) VALUES (?, 0, ?)", key, now);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(update, now, key);
+            }
+        }
+    }
+
+    /**
+     * Copies a flat, pre content-addressing file into the store and returns its new key, or
+     * {@code null} if the file is missing on disk. The legacy file itself is left in place.
+     */
+    String importLegacyFile(String fileName) throws IOException {
+        Path legacy = resolve(fileName);
+        if (!Files.isRegularFile(legacy)) {
+            return null;
+        }
+        try (InputStream input = Files.newInputStream(legacy)) {
+            return store(input, fileName);
+        }
+    }
+
+    void deleteLegacyFile(String fileName) throws IOException {
+        Files.deleteIfExists(resolve(fileName));
+        Files.deleteIfExists(resolve(thumbnailName(fileName)));
+    }
+
+    public static boolean isContentAddressed(String fileName) {
+        return fileName != null && fileName.indexOf('/') >= 0;
+    }
+
+    private Path resolve(String fileName) {
+        Path path = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!path.startsWith(this.fileStorageLocation)) {
+            throw new IllegalArgumentException("Invalid file name: " + fileName);
+        }
+        return path;
+    }
+
+    // thumb_ goes on the last path segment so thumbnails live next to their blob
+    private static String thumbnailName(String fileName) {
+        int slash = fileName.lastIndexOf('/');
+        return fileName.substring(0, slash + 1) + THUMBNAIL_PREFIX + fileName.substring(slash + 1);
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One-off move of flat {@code <millis>_<name>} uploads into the content-addressed store.
+ * Enabled with {@code storage.migrate-legacy=true}; safe to re-run, since only
+ * profile_image values without a shard prefix are picked up.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.migrate-legacy", havingValue = "true")
+public class LegacyUploadMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyUploadMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FileStorageService fileStorageService;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public LegacyUploadMigration(DataSource dataSource, FileStorageService fileStorageService, CacheManager cacheManager,
+                                 PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fileStorageService = fileStorageService;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> legacyFiles = jdbcTemplate.queryForList(
+                "SELECT DISTINCT profile_image FROM students WHERE profile_image IS NOT NULL AND profile_image <> ''",
+                String.class);
+        int migrated = 0;
+        int missing = 0;
+        for (String fileName : legacyFiles) {
+            if (FileStorageService.isContentAddressed(fileName)) {
+                continue;
+            }
+            try {
+                String key = fileStorageService.importLegacyFile(fileName);
+                if (key == null) {
+                    logger.warn("Legacy upload {} not found on disk, leaving reference unchanged", fileName);
+                    missing++;
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    int students = jdbcTemplate.update("UPDATE students SET profile_image = ? WHERE profile_image = ?", key, fileName);
+                    for (int i = 0; i < students; i++) {
+                        fileStorageService.release(fileName);
+                        fileStorageService.retain(key);
+                    }
+                });
+                fileStorageService.deleteLegacyFile(fileName);
+                migrated++;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to migrate legacy upload {}: {}", fileName, e.getMessage());
+            }
+        }
+
+        if (migrated > 0) {
+            // Cached students still carry the old file names
+            evict(CacheConfig.STUDENTS);
+            evict(CacheConfig.STUDENTS_BY_EMAIL);
+        }
+        logger.info("Legacy upload migration finished: {} migrated, {} missing", migrated, missing);
+    }
+
+    private void evict(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
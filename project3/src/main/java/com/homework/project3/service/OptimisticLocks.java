@@ -0,0 +1,21 @@
+package com.homework.project3.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Compares the version a client last saw (If-Match header or form field) with the stored one
+ * before an update. The @Version column still guards the window between this check and the
+ * commit; both cases surface as an OptimisticLockingFailureException, answered with 409.
+ */
+public final class OptimisticLocks {
+
+    private OptimisticLocks() {
+    }
+
+    // A null expected version means the client did not ask for a conditional update
+    public static void checkVersion(Long expected, Long current, Class<?> type, Object id) {
+        if (expected != null && !expected.equals(current)) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+    }
+}
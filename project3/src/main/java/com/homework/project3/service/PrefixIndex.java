@@ -0,0 +1,109 @@
+package com.homework.project3.service;
+
+import com.homework.project3.model.SearchResultDTO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted in-memory index answering "starts with" lookups over a few terms per entry.
+ * Every term is stored as "term\0id" in a skip list, so a search is a single seek
+ * followed by a short forward scan. Reads are lock-free; writes replace an entry's
+ * terms atomically with respect to other writers. Writers use a ReentrantLock rather
+ * than synchronized so a virtual thread waiting for it does not pin its carrier.
+ */
+public class PrefixIndex {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, Long> terms = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private record Entry(String label, List<String> keys) {
+    }
+
+    public void put(Long id, String label, String... values) {
+        writeLock.lock();
+        try {
+            remove(id);
+            List<String> keys = new ArrayList<>();
+            for (String value : values) {
+                String term = normalize(value);
+                if (!term.isEmpty()) {
+                    String key = term + SEPARATOR + id;
+                    terms.put(key, id);
+                    keys.add(key);
+                }
+            }
+            entries.put(id, new Entry(label, keys));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                previous.keys().forEach(terms::remove);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            terms.clear();
+            entries.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<SearchResultDTO> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Map.Entry<String, Long> term : terms.tailMap(prefix, true).entrySet()) {
+            if (!term.getKey().startsWith(prefix)) {
+                break;
+            }
+            ids.add(term.getValue());
+            if (ids.size() >= limit) {
+                break;
+            }
+        }
+        List<SearchResultDTO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                results.add(new SearchResultDTO(id, entry.label()));
+            }
+        }
+        return results;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace(SEPARATOR, ' ').trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,100 @@
+package com.homework.project3.service;
+
+import com.homework.project3.model.Course;
+import com.homework.project3.model.SearchResultDTO;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final StudentRepository studentRepository;
+    private final CourseRepository courseRepository;
+    private final PrefixIndex studentIndex = new PrefixIndex();
+    private final PrefixIndex courseIndex = new PrefixIndex();
+
+    public SearchIndexService(StudentRepository studentRepository, CourseRepository courseRepository) {
+        this.studentRepository = studentRepository;
+        this.courseRepository = courseRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        logger.info("Building search indexes");
+        studentIndex.clear();
+        Page<Student> students;
+        int page = 0;
+        do {
+            students = studentRepository.findAll(PageRequest.of(page++, LOAD_BATCH_SIZE, Sort.by("id")));
+            students.forEach(this::indexStudent);
+        } while (students.hasNext());
+
+        courseIndex.clear();
+        courseRepository.findAll().forEach(this::indexCourse);
+        logger.info("Indexed {} students and {} courses for search", studentIndex.size(), courseIndex.size());
+    }
+
+    // Index writes from a service transaction are applied only once it commits
+    public void indexStudent(Student student) {
+        Long id = student.getId();
+        String name = student.getName();
+        String surname = student.getSurname();
+        String email = student.getEmail();
+        TransactionCallbacks.afterCommit(() -> {
+            String fullName = name + " " + surname;
+            studentIndex.put(id, fullName + " (" + email + ")", name, surname, fullName, email);
+        });
+    }
+
+    public void removeStudent(Long id) {
+        TransactionCallbacks.afterCommit(() -> studentIndex.remove(id));
+    }
+
+    public void indexCourse(Course course) {
+        Long id = course.getId();
+        String name = course.getName();
+        TransactionCallbacks.afterCommit(() -> {
+            // Index each word too, so "data" finds "Introduction to Databases"
+            String[] words = name.split("\\s+");
+            String[] terms = new String[words.length + 1];
+            terms[0] = name;
+            System.arraycopy(words, 0, terms, 1, words.length);
+            courseIndex.put(id, name, terms);
+        });
+    }
+
+    public void removeCourse(Long id) {
+        TransactionCallbacks.afterCommit(() -> courseIndex.remove(id));
+    }
+
+    public List<SearchResultDTO> searchStudents(String query, Integer limit) {
+        return studentIndex.search(query, resolveLimit(limit));
+    }
+
+    public List<SearchResultDTO> searchCourses(String query, Integer limit) {
+        return courseIndex.search(query, resolveLimit(limit));
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,251 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.model.BulkResultDTO;
+import com.homework.project3.model.BulkResultDTO.Status;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.StudentEmailProjection;
+import com.homework.project3.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based create/update/delete for large batches of students (e.g. the nightly SIS sync).
+ * Items are processed in chunks; each chunk does one email lookup and one id lookup, and is
+ * written in its own transaction so Hibernate sends the inserts/updates as JDBC batches.
+ * Problems with single items are reported per item. If a chunk's transaction fails, every
+ * item of that chunk is reported as failed and the other chunks are unaffected.
+ */
+@Service
+public class StudentBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentBulkService.class);
+    public static final int MAX_BULK_SIZE = 10_000;
+
+    private final StudentRepository studentRepository;
+    private final CourseStatsUpdater courseStatsUpdater;
+    private final EnrollmentRepository enrollmentRepository;
+    private final FileStorageService fileStorageService;
+    private final AnalyticsCacheEvictor analyticsCacheEvictor;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public StudentBulkService(StudentRepository studentRepository,
+                              CourseStatsUpdater courseStatsUpdater,
+                              EnrollmentRepository enrollmentRepository,
+                              FileStorageService fileStorageService,
+                              AnalyticsCacheEvictor analyticsCacheEvictor,
+                              SearchIndexService searchIndexService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${student.bulk.chunk-size:1000}") int chunkSize) {
+        this.studentRepository = studentRepository;
+        this.courseStatsUpdater = courseStatsUpdater;
+        this.enrollmentRepository = enrollmentRepository;
+        this.fileStorageService = fileStorageService;
+        this.analyticsCacheEvictor = analyticsCacheEvictor;
+        this.searchIndexService = searchIndexService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Inserts the given students, keyed by their position in the request. An item fails if its
+     * email is already taken, either in the database or by an earlier item of the same request.
+     */
+    public List<BulkResultDTO.ItemResult> createStudents(Map<Integer, Student> students) {
+        checkSize(students.size());
+        List<BulkResultDTO.ItemResult> results = new ArrayList<>(students.size());
+        Set<String> seenEmails = new HashSet<>();
+        for (List<Map.Entry<Integer, Student>> chunk : chunks(students)) {
+            Set<String> takenEmails = studentRepository.findIdsByEmails(emailsOf(chunk)).stream()
+                    .map(StudentEmailProjection::getEmail)
+                    .collect(Collectors.toSet());
+
+            List<Map.Entry<Integer, Student>> valid = new ArrayList<>(chunk.size());
+            Set<String> chunkEmails = new HashSet<>();
+            for (Map.Entry<Integer, Student> item : chunk) {
+                String email = item.getValue().getEmail();
+                if (takenEmails.contains(email) || seenEmails.contains(email) || !chunkEmails.add(email)) {
+                    results.add(failed(item.getKey(), null, "There is already a student with this email: " + email));
+                } else {
+                    item.getValue().setId(null);
+                    valid.add(item);
+                }
+            }
+            if (valid.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Student> saved = studentRepository.saveAll(valid.stream().map(Map.Entry::getValue).toList());
+                    saved.forEach(student -> fileStorageService.retain(student.getProfileImage()));
+                });
+            } catch (RuntimeException e) {
+                logger.error("Bulk student insert chunk failed: {}", e.getMessage());
+                valid.forEach(item -> results.add(failed(item.getKey(), null, "Chunk failed: " + e.getMessage())));
+                continue;
+            }
+            // Only committed emails are taken; a rolled-back chunk's emails may be used by later items
+            seenEmails.addAll(chunkEmails);
+            for (Map.Entry<Integer, Student> item : valid) {
+                searchIndexService.indexStudent(item.getValue());
+                results.add(new BulkResultDTO.ItemResult(item.getKey(), item.getValue().getId(), Status.CREATED, null));
+            }
+        }
+        logger.info("Bulk created {} of {} students", countSucceeded(results), students.size());
+        return results;
+    }
+
+    /**
+     * Updates name, surname, email and department of existing students; each value carries
+     * the target id and optionally the version the caller last saw, which must still match.
+     * Profile images are left alone and are managed through the upload endpoint.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    public List<BulkResultDTO.ItemResult> updateStudents(Map<Integer, Student> students) {
+        checkSize(students.size());
+        List<BulkResultDTO.ItemResult> results = new ArrayList<>(students.size());
+        Set<String> seenEmails = new HashSet<>();
+        for (List<Map.Entry<Integer, Student>> chunk : chunks(students)) {
+            Map<String, Long> emailOwners = studentRepository.findIdsByEmails(emailsOf(chunk)).stream()
+                    .collect(Collectors.toMap(StudentEmailProjection::getEmail, StudentEmailProjection::getId));
+            List<BulkResultDTO.ItemResult> chunkResults = new ArrayList<>(chunk.size());
+            List<Student> updated = new ArrayList<>(chunk.size());
+            Set<String> chunkEmails = new HashSet<>();
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, Student> existing = studentRepository.findAllById(
+                                    chunk.stream().map(item -> item.getValue().getId()).toList()).stream()
+                            .collect(Collectors.toMap(Student::getId, Function.identity()));
+                    for (Map.Entry<Integer, Student> item : chunk) {
+                        Student data = item.getValue();
+                        Student student = existing.get(data.getId());
+                        Long owner = emailOwners.get(data.getEmail());
+                        if (student == null) {
+                            chunkResults.add(failed(item.getKey(), data.getId(), "Student not found with ID: " + data.getId()));
+                        } else if (data.getVersion() != null && !data.getVersion().equals(student.getVersion())) {
+                            chunkResults.add(failed(item.getKey(), data.getId(), "Version mismatch: expected " + data.getVersion() + ", current " + student.getVersion()));
+                        } else if ((owner != null && !owner.equals(student.getId()))
+                                || seenEmails.contains(data.getEmail()) || !chunkEmails.add(data.getEmail())) {
+                            chunkResults.add(failed(item.getKey(), data.getId(), "There is already a student with this email: " + data.getEmail()));
+                        } else {
+                            if (!Objects.equals(student.getDepartment(), data.getDepartment())) {
+                                analyticsCacheEvictor.evictGroup(AnalyticsGroup.DEPARTMENT);
+                            }
+                            student.setName(data.getName());
+                            student.setSurname(data.getSurname());
+                            student.setEmail(data.getEmail());
+                            student.setDepartment(data.getDepartment());
+                            updated.add(student);
+                            chunkResults.add(new BulkResultDTO.ItemResult(item.getKey(), student.getId(), Status.UPDATED, null));
+                        }
+                    }
+                    // Managed entities: the changes are flushed as one batch of UPDATEs at commit
+                });
+            } catch (RuntimeException e) {
+                logger.error("Bulk student update chunk failed: {}", e.getMessage());
+                chunk.forEach(item -> results.add(failed(item.getKey(), item.getValue().getId(), "Chunk failed: " + e.getMessage())));
+                continue;
+            }
+            seenEmails.addAll(chunkEmails);
+            updated.forEach(searchIndexService::indexStudent);
+            results.addAll(chunkResults);
+        }
+        logger.info("Bulk updated {} of {} students", countSucceeded(results), students.size());
+        return results;
+    }
+
+    /**
+     * Deletes students and their enrollments with set-based statements, keeping the course
+     * counters and the profile image reference counts in step.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    public List<BulkResultDTO.ItemResult> deleteStudents(Map<Integer, Long> ids) {
+        checkSize(ids.size());
+        List<BulkResultDTO.ItemResult> results = new ArrayList<>(ids.size());
+        for (List<Map.Entry<Integer, Long>> chunk : chunks(ids)) {
+            Set<Long> deleted = new HashSet<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    studentRepository.findAllById(chunk.stream().map(Map.Entry::getValue).toList()).forEach(student -> {
+                        deleted.add(student.getId());
+                        fileStorageService.release(student.getProfileImage());
+                    });
+                    if (!deleted.isEmpty()) {
+                        analyticsCacheEvictor.evict(enrollmentRepository.findSpansByStudentIds(deleted));
+                        courseStatsUpdater.subtractStudentEnrollments(deleted);
+                        enrollmentRepository.deleteAllByStudentIds(deleted);
+                        studentRepository.deleteAllByIdIn(deleted);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Bulk student delete chunk failed: {}", e.getMessage());
+                chunk.forEach(item -> results.add(failed(item.getKey(), item.getValue(), "Chunk failed: " + e.getMessage())));
+                continue;
+            }
+            Set<Long> reported = new HashSet<>();
+            for (Map.Entry<Integer, Long> item : chunk) {
+                if (deleted.contains(item.getValue()) && reported.add(item.getValue())) {
+                    searchIndexService.removeStudent(item.getValue());
+                    results.add(new BulkResultDTO.ItemResult(item.getKey(), item.getValue(), Status.DELETED, null));
+                } else {
+                    results.add(failed(item.getKey(), item.getValue(), "Student not found with ID: " + item.getValue()));
+                }
+            }
+        }
+        logger.info("Bulk deleted {} of {} students", countSucceeded(results), ids.size());
+        return results;
+    }
+
+    private <T> List<List<Map.Entry<Integer, T>>> chunks(Map<Integer, T> items) {
+        List<Map.Entry<Integer, T>> entries = new ArrayList<>(new LinkedHashMap<>(items).entrySet());
+        List<List<Map.Entry<Integer, T>>> chunks = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += chunkSize) {
+            chunks.add(entries.subList(from, Math.min(from + chunkSize, entries.size())));
+        }
+        return chunks;
+    }
+
+    private static Set<String> emailsOf(List<Map.Entry<Integer, Student>> chunk) {
+        return chunk.stream().map(item -> item.getValue().getEmail()).collect(Collectors.toSet());
+    }
+
+    private static void checkSize(int size) {
+        if (size > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " students per request, got " + size);
+        }
+    }
+
+    private static BulkResultDTO.ItemResult failed(int index, Long id, String message) {
+        return new BulkResultDTO.ItemResult(index, id, Status.FAILED, message);
+    }
+
+    private static long countSucceeded(List<BulkResultDTO.ItemResult> results) {
+        return results.stream().filter(result -> result.getStatus() != Status.FAILED).count();
+    }
+}
@@ -1,78 +1,170 @@
 package com.homework.project3.service;
 
+import com.homework.project3.config.CacheConfig;
 import com.homework.project3.exception.ResourceNotFoundException;
+import com.homework.project3.model.SearchResultDTO;
 import com.homework.project3.model.Student;
 import com.homework.project3.model.Course;
 import com.homework.project3.model.Enrollment;
 import com.homework.project3.repository.StudentRepository;
-import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.EnrollmentIdProjection;
 import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.StudentSpecifications;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class StudentService {
     private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "surname", "department");
+
     private final StudentRepository studentRepository;
-    private final CourseRepository courseRepository;
+    private final CourseStatsUpdater courseStatsUpdater;
     private final EnrollmentRepository enrollmentRepository;
     private final FileStorageService fileStorageService;
+    private final AnalyticsCacheEvictor analyticsCacheEvictor;
+    private final SearchIndexService searchIndexService;
 
-    public StudentService(StudentRepository studentRepository, CourseRepository courseRepository, EnrollmentRepository enrollmentRepository, FileStorageService fileStorageService) {
+    public StudentService(StudentRepository studentRepository, CourseStatsUpdater courseStatsUpdater, EnrollmentRepository enrollmentRepository, FileStorageService fileStorageService,
+                          AnalyticsCacheEvictor analyticsCacheEvictor, SearchIndexService searchIndexService) {
         this.studentRepository = studentRepository;
-        this.courseRepository = courseRepository;
+        this.courseStatsUpdater = courseStatsUpdater;
         this.enrollmentRepository = enrollmentRepository;
         this.fileStorageService = fileStorageService;
+        this.analyticsCacheEvictor = analyticsCacheEvictor;
+        this.searchIndexService = searchIndexService;
     }
 
+    @Transactional(readOnly = true)
     public List<Student> getAllStudents() {
-        logger.info("Fetching all students");
+        logger.debug("Fetching all students");
         List<Student> students = studentRepository.findAll();
-        logger.info("Retrieved {} students", students.size());
+        logger.debug("Retrieved {} students", students.size());
         return students;
     }
 
+    @Transactional(readOnly = true)
+    public Window<Student> getStudentPage(String department, String namePrefix, String sortField,
+                                          Sort.Direction direction, Integer size, String cursor) {
+        Sort sort = resolveSort(sortField, direction);
+        KeysetScrollPosition position = CursorCodec.decode(cursor, sort);
+        int limit = resolvePageSize(size);
+        Specification<Student> filter = Specification.where(StudentSpecifications.hasDepartment(department))
+                .and(StudentSpecifications.nameStartsWith(namePrefix));
+
+        logger.debug("Fetching student page (department={}, name={}, sort={}, size={})", department, namePrefix, sort, limit);
+        Window<Student> page = studentRepository.findBy(filter, query -> query.sortBy(sort).limit(limit).scroll(position));
+        logger.debug("Retrieved {} students, hasNext={}", page.size(), page.hasNext());
+        return page;
+    }
+
+    // Loads enrollment ids for all given students in one query instead of touching each lazy collection
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> getEnrollmentIdsByStudent(Collection<Student> students) {
+        List<Long> studentIds = students.stream().map(Student::getId).collect(Collectors.toList());
+        if (studentIds.isEmpty()) {
+            return Map.of();
+        }
+        return EnrollmentIdProjection.groupByOwner(studentRepository.findEnrollmentIdsByStudentIds(studentIds));
+    }
+
+    // Keyset pagination needs a unique, total order, so id is always the final tie-breaker
+    private Sort resolveSort(String sortField, Sort.Direction direction) {
+        String field = sortField == null || sortField.isBlank() ? "id" : sortField.trim();
+        if (!SORTABLE_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + field + ". Allowed: " + SORTABLE_FIELDS);
+        }
+        Sort.Direction dir = direction != null ? direction : Sort.Direction.ASC;
+        Sort sort = Sort.by(dir, field);
+        return field.equals("id") ? sort : sort.and(Sort.by(dir, "id"));
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public List<SearchResultDTO> searchStudents(String query, Integer limit) {
+        return searchIndexService.searchStudents(query, limit);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.STUDENTS, key = "#id")
+    @Transactional(readOnly = true)
     public Student getStudentById(Long id) {
-        logger.info("Fetching student with ID: {}", id);
+        logger.debug("Fetching student with ID: {}", id);
         Student student = studentRepository.findById(id)
                 .orElseThrow(() -> {
                     logger.error("Student not found with ID: {}", id);
                     return new ResourceNotFoundException("Student not found with ID: " + id);
                 });
-        logger.info("Successfully retrieved student: {}", student);
+        logger.debug("Successfully retrieved student with ID: {}", id);
         return student;
     }
 
+    @Cacheable(cacheNames = CacheConfig.STUDENTS_BY_EMAIL, key = "#email")
+    @Transactional(readOnly = true)
     public Student getStudentByEmail(String email) {
-        logger.info("Fetching student with email: {}", email);
+        logger.debug("Fetching student with email: {}", email);
         Student student = studentRepository.findByEmail(email)
                 .orElseThrow(() -> {
                     logger.error("Student not found with email: {}", email);
                     return new ResourceNotFoundException("Student not found with email: " + email);
                 });
-        logger.info("Successfully retrieved student by email: {}", student);
+        logger.debug("Successfully retrieved student by email, ID: {}", student.getId());
         return student;
     }
 
+    @Transactional
     public Student addStudent(Student student) {
-        logger.info("Attempting to add new student: {}", student);
-        studentRepository.findByEmail(student.getEmail()).ifPresent(s -> {
-            logger.error("Student with email {} already exists", student.getEmail());
-            throw new IllegalArgumentException("There is already a student with this email: " + student.getEmail());
-        });
-        Student savedStudent = studentRepository.save(student);
+        logger.debug("Attempting to add new student");
+        Student savedStudent;
+        try {
+            savedStudent = studentRepository.saveAndFlush(student);
+        } catch (DataIntegrityViolationException e) {
+            if (UniqueConstraints.STUDENT_EMAIL.isViolatedBy(e)) {
+                logger.error("Student with email {} already exists", student.getEmail());
+                throw new IllegalArgumentException("There is already a student with this email: " + student.getEmail());
+            }
+            throw e;
+        }
+        fileStorageService.retain(savedStudent.getProfileImage());
+        searchIndexService.indexStudent(savedStudent);
         logger.info("Successfully added new student with ID: {}", savedStudent.getId());
         return savedStudent;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    @Transactional
     public Student updateStudent(Long id, Student newStudentData) {
         logger.info("Attempting to update student with ID: {}", id);
-        logger.debug("New student data: {}", newStudentData);
 
         try {
             Student existingStudent = studentRepository.findById(id)
@@ -80,6 +172,7 @@ public class StudentService {
                         logger.error("Student not found with ID: {}", id);
                         return new ResourceNotFoundException("Öğrenci bulunamadı: " + id);
                     });
+            OptimisticLocks.checkVersion(newStudentData.getVersion(), existingStudent.getVersion(), Student.class, id);
 
             if (!existingStudent.getEmail().equals(newStudentData.getEmail())) {
                 logger.info("Email change detected, checking for duplicates");
@@ -90,14 +183,10 @@ public class StudentService {
                         });
             }
 
-            if (newStudentData.getProfileImage() != null &&
-                    existingStudent.getProfileImage() != null &&
-                    !existingStudent.getProfileImage().equals(newStudentData.getProfileImage())) {
-                try {
-                    fileStorageService.deleteFile(existingStudent.getProfileImage());
-                } catch (IOException e) {
-                    logger.error("Failed to delete old profile image: {}", e.getMessage());
-                }
+            String oldProfileImage = existingStudent.getProfileImage();
+            // Reports grouped by department label the student's enrollments with it
+            if (!Objects.equals(existingStudent.getDepartment(), newStudentData.getDepartment())) {
+                analyticsCacheEvictor.evictGroup(AnalyticsGroup.DEPARTMENT);
             }
 
             logger.debug("Updating student fields");
@@ -108,6 +197,13 @@ public class StudentService {
             existingStudent.setProfileImage(newStudentData.getProfileImage());
 
             Student updatedStudent = studentRepository.save(existingStudent);
+            searchIndexService.indexStudent(updatedStudent);
+
+            // Images are shared by content hash; the reference counts change with this transaction
+            if (!Objects.equals(oldProfileImage, newStudentData.getProfileImage())) {
+                fileStorageService.retain(newStudentData.getProfileImage());
+                fileStorageService.release(oldProfileImage);
+            }
             logger.info("Successfully updated student with ID: {}", id);
             return updatedStudent;
         } catch (ResourceNotFoundException e) {
@@ -116,12 +212,20 @@ public class StudentService {
         } catch (IllegalArgumentException e) {
             logger.error("Illegal argument while updating student: {}", e.getMessage());
             throw e;
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Student with ID {} was changed concurrently: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Unexpected error while updating student: {}", e.getMessage(), e);
             throw new RuntimeException("Öğrenci güncellenirken hata oluştu: " + e.getMessage(), e);
         }
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    @Transactional
     public void deleteStudent(Long id) {
         logger.info("Attempting to delete student with ID: {}", id);
         Student student = studentRepository.findById(id)
@@ -130,24 +234,21 @@ public class StudentService {
                     return new ResourceNotFoundException("Student not found with ID: " + id);
                 });
 
-
-        if (student.getProfileImage() != null && !student.getProfileImage().isEmpty()) {
-            try {
-                fileStorageService.deleteFile(student.getProfileImage());
-                logger.info("Successfully deleted profile image for student with ID: {}", id);
-            } catch (IOException e) {
-                logger.error("Failed to delete profile image for student with ID {}: {}", id, e.getMessage());
-            }
-        }
-
+        // The student's enrollments are cascade-deleted below, so take them out of the course counters first
+        analyticsCacheEvictor.evict(enrollmentRepository.findSpansByStudentIds(List.of(id)));
+        courseStatsUpdater.subtractStudentEnrollments(List.of(id));
         studentRepository.delete(student);
+        searchIndexService.removeStudent(id);
+
+        fileStorageService.release(student.getProfileImage());
     }
 
+    @Transactional(readOnly = true)
     public List<Course> getCoursesForStudent(Long studentId) {
-        logger.info("Fetching courses for student with ID: {}", studentId);
+        logger.debug("Fetching courses for student with ID: {}", studentId);
         List<Enrollment> enrollments = enrollmentRepository.findByStudentId(studentId);
         List<Course> courses = enrollments.stream().map(Enrollment::getCourse).collect(Collectors.toList());
-        logger.info("Retrieved {} courses for student {}", courses.size(), studentId);
+        logger.debug("Retrieved {} courses for student {}", courses.size(), studentId);
         return courses;
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.AsyncConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+    private final int size;
+    private final long maxPixels;
+
+    public ThumbnailService(@Value("${images.thumbnail.size:100}") int size,
+                            @Value("${images.thumbnail.max-pixels:40000000}") long maxPixels) {
+        this.size = size;
+        this.maxPixels = maxPixels;
+    }
+
+    @Async(AsyncConfig.IMAGE_EXECUTOR)
+    public void generate(Path original, Path thumbnail) {
+        String format = formatOf(thumbnail);
+        if (format == null) {
+            logger.debug("No thumbnail writer for {}", original.getFileName());
+            return;
+        }
+        try {
+            BufferedImage source = read(original);
+            if (source == null) {
+                return;
+            }
+            BufferedImage scaled = scale(source, format);
+            // Write to a temp file and move, so readers never see a half-written thumbnail
+            Path temp = Files.createTempFile(thumbnail.getParent(), "thumb", ".tmp");
+            try {
+                ImageIO.write(scaled, format, temp.toFile());
+                Files.move(temp, thumbnail, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            logger.debug("Generated thumbnail {}", thumbnail.getFileName());
+        } catch (IOException e) {
+            logger.error("Failed to generate thumbnail for {}: {}", original.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Decodes the image only after its header passed the pixel budget: a small, highly compressed
+     * file can declare e.g. 50000 x 50000 pixels, which ImageIO.read would allocate in full.
+     * Large images are decoded subsampled, at no less than twice the thumbnail size.
+     */
+    private BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                logger.warn("Not a readable image, skipping thumbnail: {}", original.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width <= 0 || height <= 0 || (long) width * height > maxPixels) {
+                    logger.warn("Image {} is {}x{}, over the {} pixel budget, skipping thumbnail",
+                            original.getFileName(), width, height, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width, height) / (2 * size));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image inside size x size, keeping the aspect ratio
+    private BufferedImage scale(BufferedImage source, String format) {
+        double ratio = Math.min(1.0, Math.min((double) size / source.getWidth(), (double) size / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = format.equals("png") || format.equals("gif") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static String formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        String extension = name.substring(dot + 1);
+        return switch (extension) {
+            case "jpg", "jpeg" -> "jpg";
+            case "png", "gif", "bmp" -> extension;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.homework.project3.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homework.project3.config.JwtConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues and revokes API bearer tokens. Revoked token ids are kept in memory only until the
+ * token would have expired anyway, so the list stays bounded by the tokens issued per TTL.
+ * Revocation is per node; with several nodes a revoked token stays usable on the others
+ * until it expires, which the short TTL keeps small.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    private final JwtEncoder jwtEncoder;
+    private final String issuer;
+    private final Duration ttl;
+    private final Cache<String, Boolean> revokedTokenIds;
+
+    public TokenService(JwtEncoder jwtEncoder,
+                        @Value("${security.jwt.issuer:project3}") String issuer,
+                        @Value("${security.jwt.ttl:15m}") Duration ttl) {
+        this.jwtEncoder = jwtEncoder;
+        this.issuer = issuer;
+        this.ttl = ttl;
+        this.revokedTokenIds = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public String issue(Authentication authentication) {
+        Instant now = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.startsWith("ROLE_") ? authority.substring(5) : authority)
+                .toList();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .id(UUID.randomUUID().toString())
+                .issuer(issuer)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(JwtConfig.ROLES_CLAIM, roles)
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        logger.info("Issued API token for user: {}", authentication.getName());
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    public void revoke(String tokenId) {
+        if (tokenId == null) {
+            throw new IllegalArgumentException("Token has no id");
+        }
+        revokedTokenIds.put(tokenId, Boolean.TRUE);
+        logger.info("Revoked API token {}", tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revokedTokenIds.getIfPresent(tokenId) != null;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+}
@@ -0,0 +1,40 @@
+package com.homework.project3.service;
+
+import com.homework.project3.model.Course;
+import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.Student;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Recognises which unique constraint a failed insert or update ran into, so services can let
+ * the database enforce uniqueness (one round trip, no race between check and insert) and still
+ * answer with their usual messages. Every constraint has an explicit name (migrations V4 and V7),
+ * matched against the name Hibernate extracts or, failing that, the database's error message.
+ */
+public enum UniqueConstraints {
+
+    STUDENT_EMAIL(Student.EMAIL_CONSTRAINT),
+    COURSE_NAME(Course.NAME_CONSTRAINT),
+    ENROLLMENT_STUDENT_COURSE(Enrollment.STUDENT_COURSE_CONSTRAINT);
+
+    private final String name;
+
+    UniqueConstraints(String name) {
+        this.name = name;
+    }
+
+    public boolean isViolatedBy(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(name);
+    }
+}
@@ -0,0 +1,51 @@
+package com.homework.project3.service;
+
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.model.User;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User} that drops cached login credentials when a user is created,
+ * changed or deleted. Eviction waits for the commit so a concurrent login cannot re-cache
+ * the old row; both the loaded and the current username are evicted in case it was renamed.
+ */
+@Component
+public class UserCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    public UserCacheEvictionListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostLoad
+    public void remember(User user) {
+        user.setLoadedUsername(user.getUsername());
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        String current = user.getUsername();
+        String loaded = user.getLoadedUsername();
+        TransactionCallbacks.afterCommit(() -> evict(current, loaded));
+    }
+
+    private void evict(String current, String loaded) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS);
+        if (cache == null) {
+            return;
+        }
+        cache.evict(current);
+        if (loaded != null && !loaded.equals(current)) {
+            cache.evict(loaded);
+        }
+    }
+}
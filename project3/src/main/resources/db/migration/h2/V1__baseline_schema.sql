@@ -0,0 +1,35 @@
+-- Schema as it existed before migrations were introduced.
+-- Existing databases are baselined at version 1 and skip this script.
+
+CREATE TABLE IF NOT EXISTS students (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL,
+    surname       VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL UNIQUE,
+    department    VARCHAR(255) NOT NULL,
+    profile_image VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS courses (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL UNIQUE,
+    credit      INTEGER      NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    semester    VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS enrollments (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id BIGINT           NOT NULL REFERENCES students (id),
+    course_id  BIGINT           NOT NULL REFERENCES courses (id),
+    class_date DATE             NOT NULL,
+    tuition    DOUBLE PRECISION NOT NULL,
+    attendance BOOLEAN          NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL
+);
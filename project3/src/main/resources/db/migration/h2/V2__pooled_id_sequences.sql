@@ -0,0 +1,23 @@
+-- Hibernate allocates ids in blocks of 50 from these sequences (pooled optimizer),
+-- so inserts can be JDBC-batched. Each sequence starts one block past the current
+-- maximum id: the pooled optimizer hands out (value - 49 .. value) for every nextval.
+
+CREATE SEQUENCE IF NOT EXISTS students_seq INCREMENT BY 50;
+ALTER SEQUENCE students_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM students);
+ALTER TABLE students ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE students ALTER COLUMN id SET DEFAULT NEXT VALUE FOR students_seq;
+
+CREATE SEQUENCE IF NOT EXISTS courses_seq INCREMENT BY 50;
+ALTER SEQUENCE courses_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM courses);
+ALTER TABLE courses ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE courses ALTER COLUMN id SET DEFAULT NEXT VALUE FOR courses_seq;
+
+CREATE SEQUENCE IF NOT EXISTS enrollments_seq INCREMENT BY 50;
+ALTER SEQUENCE enrollments_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM enrollments);
+ALTER TABLE enrollments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE enrollments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR enrollments_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
@@ -0,0 +1,12 @@
+-- Per-course enrollment aggregates, maintained incrementally by the application
+-- (EnrollmentService, EnrollmentImportService, student/course deletes) so course
+-- statistics are read from one row per course instead of scanning enrollments.
+
+ALTER TABLE courses ADD COLUMN enrollment_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE courses ADD COLUMN tuition_total DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE courses ADD COLUMN attended_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE courses SET
+    enrollment_count = (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = courses.id),
+    tuition_total = (SELECT COALESCE(SUM(e.tuition), 0) FROM enrollments e WHERE e.course_id = courses.id),
+    attended_count = (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = courses.id AND e.attendance = TRUE);
@@ -0,0 +1,17 @@
+-- Reference counts for uploaded files, keyed like students.profile_image. Counts change in the
+-- same transaction as the student rows; files at zero references are removed by
+-- FileStorageService.sweepOrphans once they are older than the grace period, which also
+-- collects uploads that were never attached to a student.
+CREATE TABLE IF NOT EXISTS stored_files (
+    file_key  VARCHAR(255) PRIMARY KEY,
+    ref_count BIGINT       NOT NULL DEFAULT 0,
+    stored_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_stored_files_ref_count ON stored_files (ref_count, stored_at);
+
+INSERT INTO stored_files (file_key, ref_count, stored_at)
+SELECT profile_image, COUNT(*), CURRENT_TIMESTAMP
+FROM students
+WHERE profile_image IS NOT NULL AND profile_image <> ''
+GROUP BY profile_image;
@@ -0,0 +1,18 @@
+-- Give the email and course name unique constraints fixed names, so duplicate-key errors can be
+-- recognised by name (see UniqueConstraints). H2 named V1's inline UNIQUE constraints itself and
+-- has no way to look a name up in a script, so the columns are rebuilt: dropping a column also
+-- drops the single-column constraints on it.
+
+ALTER TABLE students ADD COLUMN email_copy VARCHAR(255);
+UPDATE students SET email_copy = email;
+ALTER TABLE students DROP COLUMN email;
+ALTER TABLE students ALTER COLUMN email_copy RENAME TO email;
+ALTER TABLE students ALTER COLUMN email SET NOT NULL;
+ALTER TABLE students ADD CONSTRAINT uk_students_email UNIQUE (email);
+
+ALTER TABLE courses ADD COLUMN name_copy VARCHAR(255);
+UPDATE courses SET name_copy = name;
+ALTER TABLE courses DROP COLUMN name;
+ALTER TABLE courses ALTER COLUMN name_copy RENAME TO name;
+ALTER TABLE courses ALTER COLUMN name SET NOT NULL;
+ALTER TABLE courses ADD CONSTRAINT uk_courses_name UNIQUE (name);
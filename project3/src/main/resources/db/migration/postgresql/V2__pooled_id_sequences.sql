@@ -0,0 +1,23 @@
+-- Hibernate allocates ids in blocks of 50 from these sequences (pooled optimizer),
+-- so inserts can be JDBC-batched. Each sequence starts one block past the current
+-- maximum id: the pooled optimizer hands out (value - 49 .. value) for every nextval.
+
+CREATE SEQUENCE IF NOT EXISTS students_seq INCREMENT BY 50;
+SELECT setval('students_seq', COALESCE((SELECT MAX(id) FROM students), 0) + 50, false);
+ALTER TABLE students ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE students ALTER COLUMN id SET DEFAULT nextval('students_seq');
+
+CREATE SEQUENCE IF NOT EXISTS courses_seq INCREMENT BY 50;
+SELECT setval('courses_seq', COALESCE((SELECT MAX(id) FROM courses), 0) + 50, false);
+ALTER TABLE courses ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE courses ALTER COLUMN id SET DEFAULT nextval('courses_seq');
+
+CREATE SEQUENCE IF NOT EXISTS enrollments_seq INCREMENT BY 50;
+SELECT setval('enrollments_seq', COALESCE((SELECT MAX(id) FROM enrollments), 0) + 50, false);
+ALTER TABLE enrollments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE enrollments ALTER COLUMN id SET DEFAULT nextval('enrollments_seq');
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
@@ -0,0 +1,22 @@
+-- Indexes for the lookups the application runs on every request, plus the uniqueness
+-- rule that enrollment code previously only checked in Java.
+
+-- Duplicate (student, course) pairs could slip in through concurrent check-then-insert;
+-- keep the oldest row of each pair so the unique constraint can be created.
+DELETE FROM enrollments e
+WHERE EXISTS (SELECT 1 FROM enrollments d
+              WHERE d.student_id = e.student_id AND d.course_id = e.course_id AND d.id < e.id);
+
+-- Also serves lookups by student_id alone, as its leading column
+ALTER TABLE enrollments ADD CONSTRAINT uk_enrollments_student_course UNIQUE (student_id, course_id);
+
+CREATE INDEX IF NOT EXISTS idx_enrollments_course_id ON enrollments (course_id);
+CREATE INDEX IF NOT EXISTS idx_enrollments_class_date ON enrollments (class_date);
+CREATE INDEX IF NOT EXISTS idx_students_department ON students (department);
+CREATE INDEX IF NOT EXISTS idx_students_profile_image ON students (profile_image);
+
+-- Counters from V3 may include the duplicates removed above
+UPDATE courses SET
+    enrollment_count = (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = courses.id),
+    tuition_total = (SELECT COALESCE(SUM(e.tuition), 0) FROM enrollments e WHERE e.course_id = courses.id),
+    attended_count = (SELECT COUNT(*) FROM enrollments e WHERE e.course_id = courses.id AND e.attendance = TRUE);
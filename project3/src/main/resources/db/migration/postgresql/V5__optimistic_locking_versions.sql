@@ -0,0 +1,5 @@
+-- Version columns for JPA optimistic locking: every UPDATE carries "WHERE version = ?", so a
+-- concurrent edit fails with a conflict instead of silently overwriting the other one
+ALTER TABLE students ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE courses ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE enrollments ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
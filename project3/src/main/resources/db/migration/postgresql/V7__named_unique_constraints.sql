@@ -0,0 +1,30 @@
+-- Give the email and course name unique constraints fixed names, so duplicate-key errors can be
+-- recognised by name (see UniqueConstraints). Databases baselined at version 1 got theirs from
+-- Hibernate's DDL (UK... names) or by hand, so whatever single-column unique constraint or index
+-- exists on these columns is dropped first.
+
+CREATE FUNCTION pg_temp.drop_single_column_unique(tbl regclass, col name) RETURNS void AS $$
+DECLARE
+    attnum smallint;
+    rec record;
+BEGIN
+    SELECT a.attnum INTO attnum FROM pg_attribute a WHERE a.attrelid = tbl AND a.attname = col;
+    FOR rec IN SELECT c.conname FROM pg_constraint c
+               WHERE c.conrelid = tbl AND c.contype = 'u' AND c.conkey = ARRAY[attnum] LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', tbl, rec.conname);
+    END LOOP;
+    FOR rec IN SELECT i.indexrelid::regclass AS index_name FROM pg_index i
+               WHERE i.indrelid = tbl AND i.indisunique AND NOT i.indisprimary
+                 AND i.indnatts = 1 AND i.indkey[0] = attnum AND i.indexprs IS NULL AND i.indpred IS NULL
+                 AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = i.indexrelid) LOOP
+        EXECUTE format('DROP INDEX %s', rec.index_name);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.drop_single_column_unique('students', 'email');
+SELECT pg_temp.drop_single_column_unique('courses', 'name');
+DROP FUNCTION pg_temp.drop_single_column_unique(regclass, name);
+
+ALTER TABLE students ADD CONSTRAINT uk_students_email UNIQUE (email);
+ALTER TABLE courses ADD CONSTRAINT uk_courses_name UNIQUE (name);
@@ -0,0 +1,35 @@
+// Binds a text input to a /search endpoint and keeps the hidden id input in sync with the chosen suggestion.
+function bindTypeahead(inputId, hiddenId, listId, url) {
+    const input = document.getElementById(inputId);
+    const hidden = document.getElementById(hiddenId);
+    const list = document.getElementById(listId);
+    let results = [];
+    let timer;
+
+    input.addEventListener('input', function () {
+        const match = results.find(r => r.label === input.value);
+        if (match) {
+            hidden.value = match.id;
+            return;
+        }
+        hidden.value = '';
+        clearTimeout(timer);
+        const query = input.value.trim();
+        if (query.length < 2) {
+            return;
+        }
+        timer = setTimeout(function () {
+            fetch(url + '?q=' + encodeURIComponent(query))
+                .then(response => response.ok ? response.json() : [])
+                .then(data => {
+                    results = data;
+                    list.innerHTML = '';
+                    data.forEach(r => {
+                        const option = document.createElement('option');
+                        option.value = r.label;
+                        list.appendChild(option);
+                    });
+                });
+        }, 200);
+    });
+}
@@ -0,0 +1,80 @@
+package com.homework.project3;
+
+import com.homework.project3.model.Course;
+import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.StudentRepository;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seeding and cleanup shared by the integration tests. The Spring context (and its H2
+ * database) is reused across test classes, so every test starts from empty tables and caches.
+ */
+public final class TestData {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private TestData() {
+    }
+
+    public static void reset(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        jdbcTemplate.update("DELETE FROM enrollments");
+        jdbcTemplate.update("DELETE FROM students");
+        jdbcTemplate.update("DELETE FROM courses");
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+
+    public static List<Course> courses(CourseRepository courseRepository, int count, String semester) {
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = SEQUENCE.incrementAndGet();
+            Course course = new Course();
+            course.setName("Course " + n);
+            course.setCredit(3);
+            course.setDescription("Description " + n);
+            course.setSemester(semester);
+            courses.add(course);
+        }
+        return courseRepository.saveAll(courses);
+    }
+
+    public static List<Student> students(StudentRepository studentRepository, int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = SEQUENCE.incrementAndGet();
+            Student student = new Student();
+            student.setName("Name" + n);
+            student.setSurname("Surname" + n);
+            student.setEmail("student" + n + "@example.com");
+            student.setDepartment(n % 2 == 0 ? "Computer Science" : "Mathematics");
+            students.add(student);
+        }
+        return studentRepository.saveAll(students);
+    }
+
+    // Enrolls every student in every course
+    public static List<Enrollment> enrollAll(EnrollmentRepository enrollmentRepository, List<Student> students, List<Course> courses) {
+        List<Enrollment> enrollments = new ArrayList<>(students.size() * courses.size());
+        for (Student student : students) {
+            for (Course course : courses) {
+                Enrollment enrollment = new Enrollment();
+                enrollment.setStudent(student);
+                enrollment.setCourse(course);
+                enrollment.setClassDate(LocalDate.of(2024, 9, 16));
+                enrollment.setTuition(1000);
+                enrollment.setAttendance(true);
+                enrollments.add(enrollment);
+            }
+        }
+        return enrollmentRepository.saveAll(enrollments);
+    }
+}
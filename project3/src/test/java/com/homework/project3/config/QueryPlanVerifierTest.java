@@ -0,0 +1,45 @@
+package com.homework.project3.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the hot lookup queries against the schema Flyway builds, so a migration that drops
+ * or renames one of their indexes fails the build instead of a later CI startup check.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanVerifierTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private QueryPlanVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new QueryPlanVerifier(dataSource);
+    }
+
+    @Test
+    void hotQueriesUseAnIndex() {
+        assertThat(verifier.findFullScans(QueryPlanVerifier.HOT_QUERIES)).isEmpty();
+    }
+
+    // Negative control: proves the check does report a table scan, so the test above cannot pass vacuously
+    @Test
+    void unindexedColumnIsReportedAsFullScan() {
+        assertThat(verifier.findFullScans(Map.of("courses by description", "SELECT id FROM courses WHERE description = 'x'")))
+                .singleElement()
+                .asString()
+                .startsWith("courses by description -> ");
+    }
+}
@@ -0,0 +1,109 @@
+package com.homework.project3.config;
+
+import com.homework.project3.service.CourseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+/**
+ * Routing with two in-memory H2 databases standing in for primary and replica. The replica has
+ * no schema, so any query that should have gone to the primary fails there; each test asks
+ * H2 for the name of the database that served the connection.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=jdbc:h2:mem:project3-replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.lag-query=SELECT 0",
+        "datasource.replica.read-your-writes-window=1s"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndWritesThePrimary() {
+        assertThat(database(true)).containsIgnoringCase("replica");
+        assertThat(database(false)).containsIgnoringCase("project3-test");
+        // Outside a transaction (Flyway, JdbcTemplate on its own) the primary is used too
+        assertThat(currentDatabase()).containsIgnoringCase("project3-test");
+    }
+
+    @Test
+    void writerReadsFromThePrimaryWithinTheWindow() throws InterruptedException {
+        signIn("writer");
+        database(false);
+        assertThat(database(true)).containsIgnoringCase("project3-test");
+
+        signIn("someone-else");
+        assertThat(database(true)).containsIgnoringCase("replica");
+
+        signIn("writer");
+        Thread.sleep(1500);
+        assertThat(database(true)).containsIgnoringCase("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotOpenTheWindow() {
+        signIn("rolled-back");
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            currentDatabase();
+            status.setRollbackOnly();
+        });
+
+        assertThat(database(true)).containsIgnoringCase("replica");
+    }
+
+    @Test
+    void cacheFillsReadFromThePrimary() {
+        // getAllCourses is read-only; on the schema-less replica its query would fail
+        assertThatCode(courseService::getAllCourses).doesNotThrowAnyException();
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> currentDatabase());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
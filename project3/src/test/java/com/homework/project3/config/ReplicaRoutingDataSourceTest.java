@@ -0,0 +1,90 @@
+package com.homework.project3.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lag-based fallback: the replica's lag is read from a table it owns, so each test can set it
+ * and run the check by hand instead of waiting for the scheduled one.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:lag-primary;DB_CLOSE_DELAY=-1", "sa", "");
+    private final DriverManagerDataSource replica = new DriverManagerDataSource("jdbc:h2:mem:lag-replica;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        replicaJdbc.update("DELETE FROM replica_lag");
+        replicaJdbc.update("INSERT INTO replica_lag VALUES (0)");
+        routing = new ReplicaRoutingDataSource(primary, replica, "SELECT seconds FROM replica_lag",
+                Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofSeconds(5));
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+        replicaJdbc.execute("DROP TABLE IF EXISTS replica_lag");
+    }
+
+    @Test
+    void replicaWithinMaxLagIsUsed() {
+        assertThat(routing.isReplicaUsable()).isTrue();
+        assertThat(routing.getLagSeconds()).isZero();
+        assertThat(readOnlyTarget()).isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+    }
+
+    @Test
+    void lagAboveMaxLagFallsBackUntilItRecovers() {
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 30");
+        routing.checkLag();
+        assertThat(routing.isReplicaUsable()).isFalse();
+        assertThat(routing.getLagSeconds()).isEqualTo(30);
+        assertThat(readOnlyTarget()).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+
+        replicaJdbc.update("UPDATE replica_lag SET seconds = 1");
+        routing.checkLag();
+        assertThat(readOnlyTarget()).isEqualTo(ReplicaRoutingDataSource.Target.REPLICA);
+    }
+
+    @Test
+    void failingLagQueryFallsBack() {
+        replicaJdbc.execute("DROP TABLE replica_lag");
+        routing.checkLag();
+
+        assertThat(routing.isReplicaUsable()).isFalse();
+        assertThat(routing.getLagSeconds()).isNaN();
+        assertThat(readOnlyTarget()).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+    }
+
+    @Test
+    void primaryReadsOverrideTheReplica() {
+        ReplicaRoutingDataSource.PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            assertThat(readOnlyTarget()).isEqualTo(ReplicaRoutingDataSource.Target.PRIMARY);
+        } finally {
+            ReplicaRoutingDataSource.PRIMARY_READS.remove();
+        }
+    }
+
+    private Object readOnlyTarget() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return routing.determineCurrentLookupKey();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+}
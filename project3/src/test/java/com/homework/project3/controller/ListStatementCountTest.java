@@ -0,0 +1,88 @@
+package com.homework.project3.controller;
+
+import com.homework.project3.TestData;
+import com.homework.project3.model.Course;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.StudentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the list pages against N+1 loading: the number of SQL statements a request prepares
+ * must not depend on how many students, courses or enrollments it renders.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class ListStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        TestData.reset(jdbcTemplate, cacheManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/students?size=100", "/api/courses", "/students?size=100", "/courses"})
+    void statementCountDoesNotGrowWithRows(String url) throws Exception {
+        seed(3, 2);
+        long few = statementsFor(url);
+
+        seed(30, 5);
+        long many = statementsFor(url);
+
+        assertThat(few).isPositive();
+        assertThat(many).as("statements for %s with 3 vs 33 students", url).isEqualTo(few);
+    }
+
+    private void seed(int students, int courses) {
+        List<Course> seededCourses = TestData.courses(courseRepository, courses, "2024-Fall");
+        List<Student> seededStudents = TestData.students(studentRepository, students);
+        TestData.enrollAll(enrollmentRepository, seededStudents, seededCourses);
+    }
+
+    private long statementsFor(String url) throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,96 @@
+package com.homework.project3.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homework.project3.config.CacheConfig;
+import com.homework.project3.model.User;
+import com.homework.project3.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A login that read the users row before a credential change committed must not cache it after
+ * the change's eviction ran, otherwise the old password keeps working until the entry expires.
+ */
+class CachedUserDetailsServiceTest {
+
+    private static final String USERNAME = "alice";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicReference<User> row = new AtomicReference<>(user("old-hash"));
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+    private Cache cache;
+    private CachedUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.USERS, Caffeine.newBuilder().build());
+        cache = cacheManager.getCache(CacheConfig.USERS);
+        service = new CachedUserDetailsService(userRepository, cacheManager);
+    }
+
+    @Test
+    void evictionDuringLoadIsNotUndoneByTheLoad() throws Exception {
+        // The first lookup reads the old row, then stalls until the password change has "committed"
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            User current = row.get();
+            if (loadStarted.getCount() > 0) {
+                loadStarted.countDown();
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            }
+            return Optional.of(current);
+        });
+
+        CompletableFuture<String> login = CompletableFuture.supplyAsync(() -> service.loadUserByUsername(USERNAME).getPassword());
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Password change commits; its afterCommit eviction has to wait for the running load
+        row.set(user("new-hash"));
+        CompletableFuture<Void> eviction = CompletableFuture.runAsync(() -> cache.evict(USERNAME));
+        assertThatThrownBy(() -> eviction.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        releaseLoad.countDown();
+        assertThat(login.get(5, TimeUnit.SECONDS)).isEqualTo("old-hash");
+        eviction.get(5, TimeUnit.SECONDS);
+
+        assertThat(service.loadUserByUsername(USERNAME).getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void unknownUserIsCachedUntilEvicted() {
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> Optional.ofNullable(row.get()));
+        row.set(null);
+
+        assertThatThrownBy(() -> service.loadUserByUsername(USERNAME)).hasMessageContaining(USERNAME);
+        row.set(user("hash"));
+        assertThatThrownBy(() -> service.loadUserByUsername(USERNAME)).hasMessageContaining(USERNAME);
+
+        cache.evict(USERNAME);
+        assertThat(service.loadUserByUsername(USERNAME).getPassword()).isEqualTo("hash");
+    }
+
+    private static User user(String password) {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword(password);
+        user.setRole("ROLE_USER");
+        return user;
+    }
+}
@@ -0,0 +1,110 @@
+package com.homework.project3.service;
+
+import com.homework.project3.TestData;
+import com.homework.project3.metrics.ConnectionAcquisitionCounter;
+import com.homework.project3.model.Course;
+import com.homework.project3.model.Enrollment;
+import com.homework.project3.model.Student;
+import com.homework.project3.repository.CourseRepository;
+import com.homework.project3.repository.EnrollmentRepository;
+import com.homework.project3.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every service call is one transaction, so all of its repository calls must share a single
+ * JDBC connection. A method that loses its @Transactional boundary borrows one per repository
+ * call and fails here. The test methods themselves are deliberately not transactional.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ConnectionAcquisitionTest {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+    @Autowired
+    private StudentService studentService;
+    @Autowired
+    private CourseService courseService;
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private List<Student> students;
+    private List<Course> courses;
+
+    @BeforeEach
+    void setUp() {
+        TestData.reset(jdbcTemplate, cacheManager);
+        courses = TestData.courses(courseRepository, 2, "2024-Fall");
+        students = TestData.students(studentRepository, 3);
+        TestData.enrollAll(enrollmentRepository, students.subList(0, 2), courses);
+        ConnectionAcquisitionCounter.reset();
+    }
+
+    @Test
+    void createEnrollmentUsesOneConnection() {
+        Enrollment details = new Enrollment();
+        details.setClassDate(LocalDate.of(2024, 9, 23));
+        details.setTuition(500);
+        details.setAttendance(true);
+
+        enrollmentService.createEnrollment(courses.get(0).getId(), students.get(2).getId(), details);
+
+        assertThat(ConnectionAcquisitionCounter.current()).isEqualTo(1);
+    }
+
+    @Test
+    void updateStudentUsesOneConnection() {
+        Student student = students.get(0);
+        Student changes = new Student();
+        changes.setName("Renamed");
+        changes.setSurname(student.getSurname());
+        changes.setEmail(student.getEmail());
+        changes.setDepartment("Physics");
+
+        studentService.updateStudent(student.getId(), changes);
+
+        assertThat(ConnectionAcquisitionCounter.current()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteStudentUsesOneConnection() {
+        studentService.deleteStudent(students.get(0).getId());
+
+        assertThat(ConnectionAcquisitionCounter.current()).isEqualTo(1);
+    }
+
+    @Test
+    void readsUseOneConnectionEach() {
+        studentService.getStudentById(students.get(0).getId());
+        assertThat(ConnectionAcquisitionCounter.current()).isEqualTo(1);
+
+        ConnectionAcquisitionCounter.reset();
+        courseService.getEnrollmentIdsByCourse(courseService.getAllCourses());
+        assertThat(ConnectionAcquisitionCounter.current()).isEqualTo(2);
+
+        ConnectionAcquisitionCounter.reset();
+        analyticsService.getRevenue("2024-Fall", AnalyticsGroup.COURSE);
+        assertThat(ConnectionAcquisitionCounter.current()).isEqualTo(1);
+    }
+}